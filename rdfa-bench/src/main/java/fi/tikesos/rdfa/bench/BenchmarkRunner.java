@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.bench;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler and prints a summary of docs/sec,
+ * triples/sec and bytes allocated per triple. Command line arguments are
+ * passed to JMH, e.g. "-p corpus=w3c RDFaParserBenchmark.sax".
+ * 
+ * @author ssakorho
+ * 
+ */
+public class BenchmarkRunner {
+	/**
+	 * @param args
+	 * @throws Exception
+	 */
+	public static void main(String[] args) throws Exception {
+		String corpus = new File(System.getProperty(
+				DocumentCorpus.CORPUS_PROPERTY, DocumentCorpus.DEFAULT_CORPUS))
+				.getAbsolutePath();
+		CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+		ChainedOptionsBuilder options = new OptionsBuilder()
+				.parent(commandLineOptions)
+				.jvmArgsAppend("-D" + DocumentCorpus.CORPUS_PROPERTY + "=" + corpus);
+		if (commandLineOptions.getIncludes().isEmpty() == true) {
+			options.include(RDFaParserBenchmark.class.getSimpleName());
+		}
+		if (commandLineOptions.getProfilers().isEmpty() == true) {
+			options.addProfiler(GCProfiler.class);
+		}
+		Collection<RunResult> results = new Runner(options.build()).run();
+
+		// Summary
+		System.out.println();
+		System.out.println(String.format("%-30s %-12s %14s %14s %14s",
+				"Benchmark", "Corpus", "docs/s", "triples/s", "B/triple"));
+		for (RunResult result : results) {
+			// JMH declares the map with raw Result values
+			Map<String, ?> secondary = result.getSecondaryResults();
+			double documents = score(secondary, "documents");
+			double triples = score(secondary, "triples");
+			double operations = result.getPrimaryResult().getScore();
+			double allocated = score(secondary, "gc.alloc.rate.norm");
+			String benchmark = result.getParams().getBenchmark();
+			benchmark = benchmark.substring(benchmark.lastIndexOf('.',
+					benchmark.lastIndexOf('.') - 1) + 1);
+			System.out.println(String.format("%-30s %-12s %14.1f %14.1f %14s",
+					benchmark, result.getParams().getParam("corpus"),
+					documents, triples,
+					allocated >= 0 && triples > 0 ? String.format("%.1f",
+							allocated * operations / triples) : "n/a"));
+		}
+	}
+
+	/**
+	 * @param results
+	 * @param label
+	 * @return Score of the secondary result ending with label or -1
+	 */
+	private static double score(Map<String, ?> results, String label) {
+		for (Entry<String, ?> entry : results.entrySet()) {
+			if (entry.getKey().endsWith(label) == true) {
+				return ((Result<?>) entry.getValue()).getScore();
+			}
+		}
+		return -1;
+	}
+}
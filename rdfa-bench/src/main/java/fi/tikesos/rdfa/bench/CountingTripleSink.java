@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.bench;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import fi.tikesos.rdfa.core.datatype.Component;
+import fi.tikesos.rdfa.core.datatype.Language;
+import fi.tikesos.rdfa.core.datatype.Literal;
+import fi.tikesos.rdfa.core.triple.TripleSink;
+
+/**
+ * TripleSink that materializes every triple component, hands it to a
+ * Blackhole and counts the triples.
+ * 
+ * @author ssakorho
+ * 
+ */
+public class CountingTripleSink implements TripleSink {
+	private Blackhole blackhole;
+	private long count;
+
+	/**
+	 * @param blackhole
+	 */
+	public CountingTripleSink(Blackhole blackhole) {
+		this.blackhole = blackhole;
+		this.count = 0;
+	}
+
+	/**
+	 * @return Number of triples generated
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#startRelativeTripleCaching()
+	 */
+	public void startRelativeTripleCaching() {
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#stopRelativeTripleCaching()
+	 */
+	public void stopRelativeTripleCaching() {
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTriple(fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component)
+	 */
+	public void generateTriple(Component subject, Component predicate,
+			Component object) {
+		generateTriple(subject.getValue(), predicate.getValue(),
+				object.getValue());
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTriple(java.lang.String,
+	 *      java.lang.String, java.lang.String)
+	 */
+	public void generateTriple(String subject, String predicate, String object) {
+		blackhole.consume(subject);
+		blackhole.consume(predicate);
+		blackhole.consume(object);
+		count++;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTripleLiteral(fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Literal,
+	 *      fi.tikesos.rdfa.core.datatype.Language,
+	 *      fi.tikesos.rdfa.core.datatype.Component)
+	 */
+	public void generateTripleLiteral(Component subject, Component predicate,
+			Literal literal, Language language, Component datatype) {
+		generateTripleLiteral(subject.getValue(), predicate.getValue(),
+				literal.getValue(), language != null ? language.getValue()
+						: null, datatype != null ? datatype.getValue() : null);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTripleLiteral(java.lang.String,
+	 *      java.lang.String, java.lang.String, java.lang.String,
+	 *      java.lang.String)
+	 */
+	public void generateTripleLiteral(String subject, String predicate,
+			String literal, String language, String datatype) {
+		blackhole.consume(subject);
+		blackhole.consume(predicate);
+		blackhole.consume(literal);
+		blackhole.consume(language);
+		blackhole.consume(datatype);
+		count++;
+	}
+}
@@ -0,0 +1,208 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.w3c.dom.Document;
+
+import fi.tikesos.rdfa.core.parser.RDFaParser;
+import fi.tikesos.rdfa.core.util.NullEntityResolver;
+
+/**
+ * Benchmark input: a set of documents held in memory, either the W3C test
+ * suite bundled with rdfa-core or synthetic large pages.
+ * 
+ * @author ssakorho
+ * 
+ */
+@State(Scope.Benchmark)
+public class DocumentCorpus {
+	/**
+	 * System property pointing to the W3C test suite directory
+	 */
+	public static final String CORPUS_PROPERTY = "rdfa.corpus";
+	public static final String DEFAULT_CORPUS = "../rdfa-core/src/test/resources/tests/xhtml";
+	public static final String BASE = "http://example.org/bench/";
+
+	/**
+	 * w3c: every *.xhtml file in the W3C test suite;
+	 * listing: product listing with 10000 typeof items;
+	 * nested: 500 levels of nested elements carrying @property;
+	 * prefixes: 200 prefixes, half of the items redeclaring one;
+	 * xmlliteral: large descriptions, half typed as rdf:XMLLiteral;
+	 * xml: XML+RDFa product listing with 1000 items
+	 */
+	@Param({ "w3c", "listing", "nested", "prefixes", "xmlliteral", "xml" })
+	public String corpus;
+
+	private byte[][] documents;
+	private String[] bases;
+	private Document[] domDocuments;
+	private long totalBytes;
+
+	/**
+	 * Load documents into memory
+	 * 
+	 * @throws Exception
+	 */
+	@Setup(Level.Trial)
+	public void load() throws Exception {
+		List<byte[]> loaded = new ArrayList<byte[]>();
+		List<String> names = new ArrayList<String>();
+		if ("w3c".equals(corpus) == true) {
+			File directory = new File(System.getProperty(CORPUS_PROPERTY,
+					DEFAULT_CORPUS));
+			File[] files = directory.listFiles();
+			if (files == null) {
+				throw new IOException("Corpus directory " + directory
+						+ " not found, set -D" + CORPUS_PROPERTY);
+			}
+			Arrays.sort(files);
+			for (File file : files) {
+				if (file.getName().endsWith(".xhtml") == true) {
+					loaded.add(readFully(new FileInputStream(file)));
+					names.add(file.getName());
+				}
+			}
+		} else {
+			loaded.add(generator(corpus).generate().getBytes("UTF-8"));
+			names.add(corpus + ".xml");
+		}
+
+		documents = loaded.toArray(new byte[loaded.size()][]);
+		bases = new String[documents.length];
+		domDocuments = new Document[documents.length];
+		totalBytes = 0;
+
+		DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory
+				.newInstance();
+		documentBuilderFactory.setValidating(false);
+		documentBuilderFactory.setNamespaceAware(true);
+		documentBuilderFactory.setIgnoringElementContentWhitespace(false);
+		DocumentBuilder documentBuilder = documentBuilderFactory
+				.newDocumentBuilder();
+		documentBuilder.setEntityResolver(new NullEntityResolver());
+		for (int i = 0; i < documents.length; i++) {
+			bases[i] = BASE + names.get(i);
+			domDocuments[i] = documentBuilder.parse(new ByteArrayInputStream(
+					documents[i]));
+			totalBytes += documents[i].length;
+		}
+	}
+
+	/**
+	 * @return Number of documents
+	 */
+	public int size() {
+		return documents.length;
+	}
+
+	/**
+	 * @param index
+	 * @return Raw document bytes
+	 */
+	public byte[] getDocument(int index) {
+		return documents[index];
+	}
+
+	/**
+	 * @param index
+	 * @return Pre-parsed DOM document
+	 */
+	public Document getDOMDocument(int index) {
+		return domDocuments[index];
+	}
+
+	/**
+	 * @param index
+	 * @return Base URI of the document
+	 */
+	public String getBase(int index) {
+		return bases[index];
+	}
+
+	/**
+	 * @return Size of all documents in bytes
+	 */
+	public long getTotalBytes() {
+		return totalBytes;
+	}
+
+	/**
+	 * @param corpus
+	 * @return Generator for synthetic corpus
+	 */
+	private static DocumentGenerator generator(String corpus) {
+		DocumentGenerator generator = new DocumentGenerator();
+		if ("listing".equals(corpus) == true) {
+			generator.setItems(10000);
+		} else if ("nested".equals(corpus) == true) {
+			generator.setItems(1);
+			generator.setDepth(500);
+			generator.setNestedProperties(true);
+		} else if ("prefixes".equals(corpus) == true) {
+			generator.setItems(1000);
+			generator.setPrefixes(200);
+			generator.setPrefixDensity(0.5);
+		} else if ("xmlliteral".equals(corpus) == true) {
+			generator.setItems(1000);
+			generator.setLiteralSize(512);
+			generator.setXMLLiteralRatio(0.5);
+		} else if ("xml".equals(corpus) == true) {
+			generator.setFormat(RDFaParser.XML_RDFA);
+			generator.setItems(1000);
+		} else {
+			throw new IllegalArgumentException("Unknown corpus " + corpus);
+		}
+		return generator;
+	}
+
+	/**
+	 * @param inputStream
+	 * @return Stream content
+	 * @throws IOException
+	 */
+	private static byte[] readFully(InputStream inputStream) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		try {
+			int n;
+			while ((n = inputStream.read(buffer)) != -1) {
+				output.write(buffer, 0, n);
+			}
+		} finally {
+			inputStream.close();
+		}
+		return output.toByteArray();
+	}
+}
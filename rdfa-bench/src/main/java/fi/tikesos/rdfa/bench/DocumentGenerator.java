@@ -0,0 +1,381 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.bench;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Random;
+
+import fi.tikesos.rdfa.core.parser.RDFaParser;
+
+/**
+ * Deterministic generator for synthetic XHTML+RDFa and XML+RDFa documents.
+ * The same seed and settings always produce the same document.
+ * 
+ * A document consists of a number of items, each typed with @typeof and
+ * wrapped into nested elements without RDFa attributes. Items carry plain
+ * and XMLLiteral @property values, a @rel link and optionally redeclare
+ * prefixes with @prefix.
+ * 
+ * @author ssakorho
+ * 
+ */
+public class DocumentGenerator {
+	public static final String SCHEMA_NS = "http://schema.org/";
+	public static final String VOCAB_NS = "http://vocab.example.org/";
+	private static final String[] WORDS = { "lorem", "ipsum", "dolor",
+			"sit", "amet", "consectetur", "adipiscing", "elit", "sed", "do",
+			"eiusmod", "tempor", "incididunt", "ut", "labore", "et",
+			"dolore", "magna", "aliqua", "<b>", "&", "\"quoted\"" };
+	private static final String[] PROPERTIES = { "name", "description",
+			"sku", "brand", "color", "material", "model", "category" };
+	private long seed = 1;
+	private int format = RDFaParser.XHTML_RDFA;
+	private int items = 100;
+	private int depth = 3;
+	private boolean nestedProperties = false;
+	private int prefixes = 10;
+	private double prefixDensity = 0.0;
+	private int propertiesPerItem = 4;
+	private int literalSize = 64;
+	private double xmlLiteralRatio = 0.0;
+
+	/**
+	 * @param seed
+	 *            The random seed
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * @param format
+	 *            RDFaParser.XHTML_RDFA or RDFaParser.XML_RDFA
+	 */
+	public void setFormat(int format) {
+		if (format != RDFaParser.XHTML_RDFA && format != RDFaParser.XML_RDFA) {
+			throw new IllegalArgumentException("Unsupported format " + format);
+		}
+		this.format = format;
+	}
+
+	/**
+	 * @param items
+	 *            Number of @typeof items in the document
+	 */
+	public void setItems(int items) {
+		this.items = items;
+	}
+
+	/**
+	 * @param depth
+	 *            Number of nested elements wrapping each item
+	 */
+	public void setDepth(int depth) {
+		this.depth = depth;
+	}
+
+	/**
+	 * @param nestedProperties
+	 *            When true, every wrapping element carries @property too, so
+	 *            literals are collected inside each other
+	 */
+	public void setNestedProperties(boolean nestedProperties) {
+		this.nestedProperties = nestedProperties;
+	}
+
+	/**
+	 * @param prefixes
+	 *            Number of prefixes declared at the root element
+	 */
+	public void setPrefixes(int prefixes) {
+		this.prefixes = prefixes;
+	}
+
+	/**
+	 * @param prefixDensity
+	 *            Probability (0..1) of an item redeclaring a prefix with
+	 *            @prefix
+	 */
+	public void setPrefixDensity(double prefixDensity) {
+		this.prefixDensity = prefixDensity;
+	}
+
+	/**
+	 * @param propertiesPerItem
+	 *            Number of @property elements per item
+	 */
+	public void setPropertiesPerItem(int propertiesPerItem) {
+		this.propertiesPerItem = propertiesPerItem;
+	}
+
+	/**
+	 * @param literalSize
+	 *            Approximate length of literal text in characters
+	 */
+	public void setLiteralSize(int literalSize) {
+		this.literalSize = literalSize;
+	}
+
+	/**
+	 * @param xmlLiteralRatio
+	 *            Probability (0..1) of a @property being typed as
+	 *            rdf:XMLLiteral
+	 */
+	public void setXMLLiteralRatio(double xmlLiteralRatio) {
+		this.xmlLiteralRatio = xmlLiteralRatio;
+	}
+
+	/**
+	 * @return The generated document
+	 */
+	public String generate() {
+		StringWriter writer = new StringWriter();
+		try {
+			generate(writer);
+		} catch (IOException exception) {
+			// StringWriter does not throw
+			throw new IllegalStateException(exception);
+		}
+		return writer.toString();
+	}
+
+	/**
+	 * @param writer
+	 *            The writer the document is written to
+	 * @throws IOException
+	 */
+	public void generate(Writer writer) throws IOException {
+		Random random = new Random(seed);
+		String element = format == RDFaParser.XHTML_RDFA ? "div" : "node";
+
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		if (format == RDFaParser.XHTML_RDFA) {
+			writer.write("<html xmlns=\"");
+			writer.write(RDFaParser.XHTML_NS);
+			writer.write("\"");
+		} else {
+			writer.write("<catalog xmlns=\"http://example.org/catalog\"");
+		}
+		writer.write(" xmlns:schema=\"");
+		writer.write(SCHEMA_NS);
+		writer.write("\" xmlns:rdf=\"");
+		writer.write(RDFaParser.RDF_NS);
+		writer.write("\"");
+		if (prefixes > 0) {
+			writer.write(" prefix=\"");
+			for (int i = 0; i < prefixes; i++) {
+				if (i > 0) {
+					writer.write(' ');
+				}
+				writer.write("p" + i + ": " + VOCAB_NS + i + "/");
+			}
+			writer.write("\"");
+		}
+		writer.write(">\n");
+		if (format == RDFaParser.XHTML_RDFA) {
+			writer.write("<head><title property=\"schema:name\">Synthetic document ");
+			writer.write(String.valueOf(seed));
+			writer.write("</title></head>\n<body vocab=\"");
+			writer.write(SCHEMA_NS);
+			writer.write("\">\n");
+		}
+
+		for (int item = 0; item < items; item++) {
+			// Item
+			writer.write("<");
+			writer.write(element);
+			writer.write(" about=\"#item-");
+			writer.write(String.valueOf(item));
+			writer.write("\" typeof=\"schema:Product");
+			if (prefixes > 0) {
+				writer.write(" p" + random.nextInt(prefixes) + ":Item");
+			}
+			writer.write("\"");
+			if (prefixes > 0 && random.nextDouble() < prefixDensity) {
+				int redeclared = random.nextInt(prefixes);
+				writer.write(" prefix=\"p" + redeclared + ": " + VOCAB_NS
+						+ redeclared + "/item/" + item + "/\"");
+			}
+			writer.write(">\n");
+
+			// Wrappers
+			for (int level = 0; level < depth; level++) {
+				writer.write("<");
+				writer.write(element);
+				if (nestedProperties == true) {
+					writer.write(" property=\"schema:level");
+					writer.write(String.valueOf(level % 10));
+					writer.write("\">");
+					writeText(writer, random, Math.max(1, literalSize / 4));
+				} else {
+					writer.write(" class=\"wrapper-");
+					writer.write(String.valueOf(level));
+					writer.write("\">");
+				}
+			}
+
+			// Properties
+			for (int n = 0; n < propertiesPerItem; n++) {
+				String property = prefixes > 0 && n % 2 == 1 ? "p"
+						+ random.nextInt(prefixes) + ":"
+						+ PROPERTIES[n % PROPERTIES.length] : "schema:"
+						+ PROPERTIES[n % PROPERTIES.length];
+				writer.write("<");
+				writer.write(element);
+				writer.write(" property=\"");
+				writer.write(property);
+				writer.write("\"");
+				if (random.nextDouble() < xmlLiteralRatio) {
+					writer.write(" datatype=\"rdf:XMLLiteral\">");
+					writer.write("<p>");
+					writeText(writer, random, literalSize / 2);
+					writer.write("<em class=\"highlight\">");
+					writeText(writer, random, literalSize / 2);
+					writer.write("</em><br/></p>");
+				} else {
+					writer.write(">");
+					writeText(writer, random, literalSize);
+				}
+				writer.write("</");
+				writer.write(element);
+				writer.write(">\n");
+			}
+			writer.write("<");
+			writer.write(element);
+			writer.write(" property=\"schema:price\" datatype=\"schema:Number\" content=\"");
+			writer.write(String.valueOf(random.nextInt(1000)));
+			writer.write(".99\"/>\n");
+			if (format == RDFaParser.XHTML_RDFA) {
+				writer.write("<a rel=\"schema:url\" href=\"/products/");
+				writer.write(String.valueOf(item));
+				writer.write("\">details</a>\n");
+			} else {
+				writer.write("<link rel=\"schema:url\" resource=\"http://example.org/products/");
+				writer.write(String.valueOf(item));
+				writer.write("\"/>\n");
+			}
+
+			for (int level = 0; level < depth; level++) {
+				writer.write("</");
+				writer.write(element);
+				writer.write(">");
+			}
+			writer.write("</");
+			writer.write(element);
+			writer.write(">\n");
+		}
+
+		if (format == RDFaParser.XHTML_RDFA) {
+			writer.write("</body>\n</html>\n");
+		} else {
+			writer.write("</catalog>\n");
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Write escaped random text
+	 * 
+	 * @param writer
+	 * @param random
+	 * @param length
+	 * @throws IOException
+	 */
+	private static void writeText(Writer writer, Random random, int length)
+			throws IOException {
+		int written = 0;
+		while (written < length) {
+			String word = WORDS[random.nextInt(WORDS.length)];
+			for (int i = 0; i < word.length(); i++) {
+				char c = word.charAt(i);
+				switch (c) {
+				case '<':
+					writer.write("&lt;");
+					break;
+				case '>':
+					writer.write("&gt;");
+					break;
+				case '&':
+					writer.write("&amp;");
+					break;
+				case '"':
+					writer.write("&quot;");
+					break;
+				default:
+					writer.write(c);
+					break;
+				}
+			}
+			writer.write(' ');
+			written += word.length() + 1;
+		}
+	}
+
+	/**
+	 * Write a generated document to a file.
+	 * 
+	 * Usage: DocumentGenerator file [xhtml|xml] [items] [depth] [prefixes]
+	 * [prefixDensity] [literalSize] [xmlLiteralRatio] [seed]
+	 * 
+	 * @param args
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: DocumentGenerator file [xhtml|xml] [items] [depth] "
+					+ "[prefixes] [prefixDensity] [literalSize] [xmlLiteralRatio] [seed]");
+			System.exit(1);
+		}
+		DocumentGenerator generator = new DocumentGenerator();
+		if (args.length > 1) {
+			generator.setFormat("xml".equals(args[1]) == true ? RDFaParser.XML_RDFA
+					: RDFaParser.XHTML_RDFA);
+		}
+		if (args.length > 2) {
+			generator.setItems(Integer.parseInt(args[2]));
+		}
+		if (args.length > 3) {
+			generator.setDepth(Integer.parseInt(args[3]));
+		}
+		if (args.length > 4) {
+			generator.setPrefixes(Integer.parseInt(args[4]));
+		}
+		if (args.length > 5) {
+			generator.setPrefixDensity(Double.parseDouble(args[5]));
+		}
+		if (args.length > 6) {
+			generator.setLiteralSize(Integer.parseInt(args[6]));
+		}
+		if (args.length > 7) {
+			generator.setXMLLiteralRatio(Double.parseDouble(args[7]));
+		}
+		if (args.length > 8) {
+			generator.setSeed(Long.parseLong(args[8]));
+		}
+		Writer writer = new OutputStreamWriter(new FileOutputStream(new File(
+				args[0])), "UTF-8");
+		try {
+			generator.generate(writer);
+		} finally {
+			writer.close();
+		}
+	}
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.bench;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.XMLReaderFactory;
+
+import fi.tikesos.rdfa.core.exception.ErrorHandler;
+import fi.tikesos.rdfa.core.exception.NullErrorHandler;
+import fi.tikesos.rdfa.core.parser.RDFaParser;
+import fi.tikesos.rdfa.core.parser.dom.DOMRDFaParser;
+import fi.tikesos.rdfa.core.parser.sax.SAXRDFaParser;
+import fi.tikesos.rdfa.core.profile.ProfileHandler;
+import fi.tikesos.rdfa.core.util.NullEntityResolver;
+
+/**
+ * Throughput of the SAX and DOM extraction paths. One operation extracts every
+ * document of the selected corpus. The DOM benchmark measures RDFa extraction
+ * only, documents are parsed into DOM trees during setup.
+ * 
+ * Run with the GC profiler (-prof gc), or through BenchmarkRunner which also
+ * derives docs/sec, triples/sec and bytes allocated per triple.
+ * 
+ * @author ssakorho
+ * 
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RDFaParserBenchmark {
+	/**
+	 * Documents and triples extracted, reported per second by JMH
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Counters {
+		public long documents;
+		public long triples;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			documents = 0;
+			triples = 0;
+		}
+	}
+
+	/**
+	 * Per thread parser environment
+	 */
+	@State(Scope.Thread)
+	public static class Environment {
+		private XMLReader reader;
+		private ProfileHandler profileHandler;
+		private ErrorHandler errorHandler;
+
+		@Setup(Level.Trial)
+		public void setup() throws Exception {
+			reader = XMLReaderFactory.createXMLReader();
+			reader.setFeature("http://xml.org/sax/features/validation",
+					Boolean.FALSE);
+			reader.setFeature(
+					"http://xml.org/sax/features/namespace-prefixes",
+					Boolean.TRUE);
+			reader.setEntityResolver(new NullEntityResolver());
+			profileHandler = new StaticProfileHandler();
+			errorHandler = new NullErrorHandler();
+		}
+	}
+
+	/**
+	 * @param corpus
+	 * @param environment
+	 * @param counters
+	 * @param blackhole
+	 * @throws Exception
+	 */
+	@Benchmark
+	public void sax(DocumentCorpus corpus, Environment environment,
+			Counters counters, Blackhole blackhole) throws Exception {
+		for (int i = 0; i < corpus.size(); i++) {
+			CountingTripleSink sink = new CountingTripleSink(blackhole);
+			SAXRDFaParser parser = new SAXRDFaParser(corpus.getBase(i), sink,
+					environment.profileHandler, environment.errorHandler,
+					RDFaParser.UNKNOWN_XML);
+			environment.reader.setContentHandler(parser);
+			environment.reader.parse(new InputSource(new ByteArrayInputStream(
+					corpus.getDocument(i))));
+			counters.documents++;
+			counters.triples += sink.getCount();
+		}
+	}
+
+	/**
+	 * @param corpus
+	 * @param environment
+	 * @param counters
+	 * @param blackhole
+	 * @throws Exception
+	 */
+	@Benchmark
+	public void dom(DocumentCorpus corpus, Environment environment,
+			Counters counters, Blackhole blackhole) throws Exception {
+		for (int i = 0; i < corpus.size(); i++) {
+			CountingTripleSink sink = new CountingTripleSink(blackhole);
+			DOMRDFaParser.parse(corpus.getDOMDocument(i), corpus.getBase(i),
+					sink, environment.profileHandler,
+					environment.errorHandler, RDFaParser.UNKNOWN_XML);
+			counters.documents++;
+			counters.triples += sink.getCount();
+		}
+	}
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.bench;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import fi.tikesos.rdfa.core.parser.RDFaParser;
+import fi.tikesos.rdfa.core.profile.Profile;
+import fi.tikesos.rdfa.core.profile.ProfileHandler;
+
+/**
+ * Profile handler serving fixed, in-memory profiles so that benchmarks never
+ * touch the network. Unknown profiles resolve to an empty profile.
+ * 
+ * @author ssakorho
+ * 
+ */
+public class StaticProfileHandler implements ProfileHandler {
+	private static final Profile EMPTY_PROFILE = new StaticProfile(
+			Collections.<String, String> emptyMap(),
+			Collections.<String, String> emptyMap(), null);
+	private Map<String, Profile> profiles = new HashMap<String, Profile>();
+
+	/**
+	 * Class constructor.
+	 */
+	public StaticProfileHandler() {
+		// RDFa 1.1 default profile (subset)
+		Map<String, String> prefixMappings = new HashMap<String, String>();
+		prefixMappings.put("cc", "http://creativecommons.org/ns#");
+		prefixMappings.put("dc", "http://purl.org/dc/terms/");
+		prefixMappings.put("foaf", "http://xmlns.com/foaf/0.1/");
+		prefixMappings.put("og", "http://ogp.me/ns#");
+		prefixMappings.put("owl", "http://www.w3.org/2002/07/owl#");
+		prefixMappings.put("rdf", "http://www.w3.org/1999/02/22-rdf-syntax-ns#");
+		prefixMappings.put("rdfs", "http://www.w3.org/2000/01/rdf-schema#");
+		prefixMappings.put("schema", "http://schema.org/");
+		prefixMappings.put("sioc", "http://rdfs.org/sioc/ns#");
+		prefixMappings.put("skos", "http://www.w3.org/2004/02/skos/core#");
+		prefixMappings.put("xsd", "http://www.w3.org/2001/XMLSchema#");
+		profiles.put(RDFaParser.RDFA_PROFILE, new StaticProfile(
+				Collections.<String, String> emptyMap(), prefixMappings, null));
+
+		// XHTML vocabulary (subset)
+		Map<String, String> termMappings = new HashMap<String, String>();
+		for (String term : new String[] { "alternate", "appendix",
+				"bookmark", "chapter", "cite", "contents", "copyright",
+				"first", "glossary", "help", "index", "last", "license",
+				"meta", "next", "p3pv1", "prev", "role", "section",
+				"start", "stylesheet", "subsection", "top", "up" }) {
+			termMappings.put(term, RDFaParser.XHTML_PROFILE + "#" + term);
+		}
+		profiles.put(RDFaParser.XHTML_PROFILE, new StaticProfile(termMappings,
+				Collections.<String, String> emptyMap(), null));
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see fi.tikesos.rdfa.core.profile.ProfileHandler#loadProfile(java.lang.String)
+	 */
+	public Profile loadProfile(String profileURI) throws Exception {
+		Profile profile = profiles.get(profileURI);
+		return profile != null ? profile : EMPTY_PROFILE;
+	}
+
+	/**
+	 * Profile implementation for StaticProfileHandler
+	 * 
+	 * @author ssakorho
+	 * 
+	 */
+	private static class StaticProfile implements Profile {
+		private Map<String, String> termMappings;
+		private Map<String, String> prefixMappings;
+		private String defaultVocabulary;
+
+		public StaticProfile(Map<String, String> termMappings,
+				Map<String, String> prefixMappings, String defaultVocabulary) {
+			this.termMappings = termMappings;
+			this.prefixMappings = prefixMappings;
+			this.defaultVocabulary = defaultVocabulary;
+		}
+
+		/**
+		 * (non-Javadoc)
+		 * 
+		 * @see fi.tikesos.rdfa.core.profile.Profile#getTermMappings()
+		 */
+		public Map<String, String> getTermMappings() {
+			return termMappings;
+		}
+
+		/**
+		 * (non-Javadoc)
+		 * 
+		 * @see fi.tikesos.rdfa.core.profile.Profile#getPrefixMappings()
+		 */
+		public Map<String, String> getPrefixMappings() {
+			return prefixMappings;
+		}
+
+		/**
+		 * (non-Javadoc)
+		 * 
+		 * @see fi.tikesos.rdfa.core.profile.Profile#getDefaultVocabulary()
+		 */
+		public String getDefaultVocabulary() {
+			return defaultVocabulary;
+		}
+	}
+}
@@ -17,6 +17,8 @@ package fi.tikesos.rdfa.core.datatype;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Wrapper class for storing base URI
@@ -25,7 +27,10 @@ import java.net.URISyntaxException;
  *
  */
 public class BaseURI {
-	private URI value;
+	private static final int MAX_RESOLVED = 1024;
+	private String value;
+	// Resolved references for the current value
+	private Map<String, String> resolved = new HashMap<String, String>();
 	
 	/**
 	 * Class constructor
@@ -34,7 +39,8 @@ public class BaseURI {
 	 * @throws URISyntaxException
 	 */
 	public BaseURI(String str) throws URISyntaxException {
-		value = new URI(str);
+		IRIValidator.validate(str);
+		value = str;
 	}
 	
 	/**
@@ -47,13 +53,39 @@ public class BaseURI {
 			// Fragment is removed from base
 			str = str.substring(0, hash);
 		}
-		value = value.resolve(str);
+		IRIValidator.validate(str);
+		value = IRIResolver.resolve(value, str);
+		resolved.clear();
 	}
 	
 	/**
 	 * @return The base URI.
 	 */
 	public URI getURI() {
+		return URI.create(value);
+	}
+
+	/**
+	 * @return The base URI string, a new instance whenever base changes.
+	 */
+	public String getValue() {
 		return value;
 	}
+
+	/**
+	 * @param reference
+	 *            The relative reference to resolve
+	 * @return The reference resolved against the base URI.
+	 */
+	public String resolve(String reference) {
+		String uri = resolved.get(reference);
+		if (uri == null) {
+			uri = IRIResolver.resolve(value, reference);
+			if (resolved.size() >= MAX_RESOLVED) {
+				resolved.clear();
+			}
+			resolved.put(reference, uri);
+		}
+		return uri;
+	}
 }
@@ -26,9 +26,11 @@ import java.net.URI;
 public class Component {
 	private Location location;
 	private String absoluteURI;
-	private URI currentBaseURI;
-	private URI uri;
+	private String uri;
 	private BaseURI baseURI;
+	private IRIDictionary dictionary;
+	private String idValue;
+	private int id = -1;
 
 	/**
 	 * Class constructor.
@@ -53,6 +55,21 @@ public class Component {
 		this.absoluteURI = absoluteURI;
 	}
 
+	/**
+	 * Class constructor.
+	 * 
+	 * @param dictionary
+	 *            The dictionary id belongs to.
+	 * @param id
+	 *            The id of the absolute uri.
+	 */
+	public Component(IRIDictionary dictionary, int id) {
+		this.absoluteURI = dictionary.getIRI(id);
+		this.dictionary = dictionary;
+		this.idValue = absoluteURI;
+		this.id = id;
+	}
+
 	/**
 	 * Class constructor.
 	 * 
@@ -76,10 +93,23 @@ public class Component {
 			this.absoluteURI = uri.toString();
 		} else {
 			this.baseURI = baseURI;
-			this.uri = uri;
+			this.uri = uri.toString();
 		}
 	}
 
+	/**
+	 * Class constructor.
+	 * 
+	 * @param baseURI
+	 *            The base uri.
+	 * @param reference
+	 *            The relative reference.
+	 */
+	public Component(BaseURI baseURI, String reference) {
+		this.baseURI = baseURI;
+		this.uri = reference;
+	}
+
 	/**
 	 * @return The component's location in the document.
 	 */
@@ -96,22 +126,54 @@ public class Component {
 	}
 
 	/**
-	 * @return The URI value.
+	 * @return The URI value. Relative value is resolved against base on first
+	 *         use, so base must be final before calling this.
 	 */
 	public String getValue() {
-		if (baseURI != null && baseURI.getURI() != currentBaseURI) {
-			currentBaseURI = baseURI.getURI();
-			absoluteURI = (uri != null ? currentBaseURI.resolve(uri).toString()
-					: currentBaseURI.toString());
+		if (absoluteURI == null && baseURI != null) {
+			absoluteURI = (uri != null ? baseURI.resolve(uri) : baseURI
+					.getValue());
 		}
 		return absoluteURI;
 	}
 	
+	/**
+	 * @param dictionary
+	 *            The dictionary to look the id up from.
+	 */
+	public void setDictionary(IRIDictionary dictionary) {
+		this.dictionary = dictionary;
+		this.idValue = null;
+	}
+
+	/**
+	 * @return The dictionary ids are looked up from or null.
+	 */
+	public IRIDictionary getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * @return Id of the URI value in dictionary or -1 if there is no
+	 *         dictionary.
+	 */
+	public int getId() {
+		if (dictionary == null) {
+			return -1;
+		}
+		String value = getValue();
+		if (value != idValue) {
+			id = dictionary.getId(value);
+			idValue = value;
+		}
+		return id;
+	}
+
 	/**
 	 * @return True if uri is absolute, otherwise false.
 	 */
 	public boolean isAbsolute() {
-		return baseURI != null;
+		return baseURI == null;
 	}
 
 	/**
@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.datatype;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * IRI dictionary assigns each distinct IRI (or blank node) a dense integer
+ * id and a single shared String instance. A dictionary may be kept for one
+ * document or reused for a batch of documents.
+ * 
+ * @author ssakorho
+ * 
+ */
+public class IRIDictionary {
+	private Map<String, Integer> ids = new HashMap<String, Integer>();
+	private List<String> iris = new ArrayList<String>();
+
+	/**
+	 * @param iri
+	 *            The IRI to look up
+	 * @return Id of the IRI, added to dictionary if not present
+	 */
+	public int getId(String iri) {
+		Integer id = ids.get(iri);
+		if (id == null) {
+			id = iris.size();
+			ids.put(iri, id);
+			iris.add(iri);
+		}
+		return id;
+	}
+
+	/**
+	 * @param id
+	 *            The IRI id
+	 * @return The shared IRI instance
+	 */
+	public String getIRI(int id) {
+		return iris.get(id);
+	}
+
+	/**
+	 * @param iri
+	 *            The IRI to intern
+	 * @return The shared IRI instance equal to iri
+	 */
+	public String intern(String iri) {
+		return iris.get(getId(iri));
+	}
+
+	/**
+	 * @return Number of IRIs in dictionary
+	 */
+	public int size() {
+		return iris.size();
+	}
+
+	/**
+	 * Remove all IRIs. Ids are reassigned starting from zero.
+	 */
+	public void clear() {
+		ids.clear();
+		iris.clear();
+	}
+}
@@ -0,0 +1,190 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.datatype;
+
+/**
+ * String based reference resolution as defined in section 5.2 of RFC 3986.
+ * 
+ * @author ssakorho
+ * 
+ */
+public class IRIResolver {
+	private IRIResolver() {
+	}
+
+	/**
+	 * @param base
+	 *            The base IRI
+	 * @param reference
+	 *            The IRI reference to resolve
+	 * @return The target IRI
+	 */
+	public static String resolve(String base, String reference) {
+		Parts r = new Parts(reference);
+		StringBuilder target = new StringBuilder(base.length()
+				+ reference.length());
+		if (r.scheme != null) {
+			target.append(r.scheme).append(':');
+			appendAuthority(target, r.authority);
+			appendDotSegmentsRemoved(target, r.path);
+			appendQuery(target, r.query);
+		} else {
+			Parts b = new Parts(base);
+			if (b.scheme != null) {
+				target.append(b.scheme).append(':');
+			}
+			if (r.authority != null) {
+				appendAuthority(target, r.authority);
+				appendDotSegmentsRemoved(target, r.path);
+				appendQuery(target, r.query);
+			} else {
+				appendAuthority(target, b.authority);
+				if (r.path.length() == 0) {
+					target.append(b.path);
+					appendQuery(target, r.query != null ? r.query : b.query);
+				} else {
+					if (r.path.charAt(0) == '/') {
+						appendDotSegmentsRemoved(target, r.path);
+					} else {
+						// Merge paths
+						String merged;
+						if (b.authority != null && b.path.length() == 0) {
+							merged = "/" + r.path;
+						} else {
+							merged = b.path.substring(0,
+									b.path.lastIndexOf('/') + 1) + r.path;
+						}
+						appendDotSegmentsRemoved(target, merged);
+					}
+					appendQuery(target, r.query);
+				}
+			}
+		}
+		if (r.fragment != null) {
+			target.append('#').append(r.fragment);
+		}
+		return target.toString();
+	}
+
+	private static void appendAuthority(StringBuilder target, String authority) {
+		if (authority != null) {
+			target.append("//").append(authority);
+		}
+	}
+
+	private static void appendQuery(StringBuilder target, String query) {
+		if (query != null) {
+			target.append('?').append(query);
+		}
+	}
+
+	/**
+	 * Append path with dot segments removed (RFC 3986 section 5.2.4)
+	 * 
+	 * @param target
+	 * @param path
+	 */
+	private static void appendDotSegmentsRemoved(StringBuilder target,
+			String path) {
+		if (path.indexOf('.') == -1) {
+			target.append(path);
+			return;
+		}
+		int start = target.length();
+		int n = path.length();
+		int i = 0;
+		while (i < n) {
+			if (path.startsWith("../", i) == true) {
+				i += 3;
+			} else if (path.startsWith("./", i) == true) {
+				i += 2;
+			} else if (path.startsWith("/./", i) == true) {
+				i += 2;
+			} else if (i + 2 == n && path.startsWith("/.", i) == true) {
+				// Replace "/." at the end with "/"
+				target.append('/');
+				i = n;
+			} else if (path.startsWith("/../", i) == true
+					|| (i + 3 == n && path.startsWith("/..", i) == true)) {
+				// Remove the last segment from output
+				int slash = target.lastIndexOf("/");
+				target.setLength(slash >= start ? slash : start);
+				if (i + 3 == n) {
+					target.append('/');
+					i = n;
+				} else {
+					i += 3;
+				}
+			} else if ((i + 1 == n && path.charAt(i) == '.')
+					|| (i + 2 == n && path.startsWith("..", i) == true)) {
+				i = n;
+			} else {
+				// Move the first path segment to output
+				int slash = path.indexOf('/', i + 1);
+				if (slash == -1) {
+					slash = n;
+				}
+				target.append(path, i, slash);
+				i = slash;
+			}
+		}
+	}
+
+	/**
+	 * Components of an IRI reference (RFC 3986 appendix B)
+	 */
+	private static class Parts {
+		private String scheme = null;
+		private String authority = null;
+		private String path = null;
+		private String query = null;
+		private String fragment = null;
+
+		private Parts(String reference) {
+			int n = reference.length();
+			int p = 0;
+			for (int i = 0; i < n; i++) {
+				char c = reference.charAt(i);
+				if (c == ':') {
+					if (i > 0) {
+						scheme = reference.substring(0, i);
+						p = i + 1;
+					}
+					break;
+				} else if (c == '/' || c == '?' || c == '#') {
+					break;
+				}
+			}
+			int hash = reference.indexOf('#', p);
+			if (hash != -1) {
+				fragment = reference.substring(hash + 1);
+				n = hash;
+			}
+			int question = reference.indexOf('?', p);
+			if (question != -1 && question < n) {
+				query = reference.substring(question + 1, n);
+				n = question;
+			}
+			if (reference.startsWith("//", p) == true) {
+				int slash = reference.indexOf('/', p + 2);
+				int end = slash != -1 && slash < n ? slash : n;
+				authority = reference.substring(p + 2, end);
+				p = end;
+			}
+			path = reference.substring(p, n);
+		}
+	}
+}
@@ -0,0 +1,341 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.datatype;
+
+import java.net.URISyntaxException;
+
+import fi.tikesos.rdfa.core.exception.RDFaException;
+
+/**
+ * Lightweight IRI syntax checker. Accepts the same references as
+ * java.net.URI without building one, so that CURIE and absolute IRI
+ * expansion only needs to know whether the value is valid and whether it
+ * has a scheme.
+ * 
+ * @author ssakorho
+ * 
+ */
+public class IRIValidator {
+	private static final int ALPHA = 0x01;
+	private static final int DIGIT = 0x02;
+	private static final int SCHEME = 0x04;
+	private static final int PATH = 0x08;
+	private static final int URIC = 0x10;
+	private static final int AUTHORITY = 0x20;
+	private static final int HEX = 0x40;
+	private static final byte[] CHARACTERS = new byte[128];
+
+	static {
+		for (char c = 'a'; c <= 'z'; c++) {
+			CHARACTERS[c] |= ALPHA;
+			CHARACTERS[Character.toUpperCase(c)] |= ALPHA;
+		}
+		for (char c = '0'; c <= '9'; c++) {
+			CHARACTERS[c] |= DIGIT | HEX;
+		}
+		for (char c = 'a'; c <= 'f'; c++) {
+			CHARACTERS[c] |= HEX;
+			CHARACTERS[Character.toUpperCase(c)] |= HEX;
+		}
+		mark(ALPHA | DIGIT, SCHEME | PATH | URIC | AUTHORITY);
+		// unreserved
+		mark("-_.!~*'()", PATH | URIC | AUTHORITY);
+		mark("+-.", SCHEME);
+		// reserved
+		mark(";/?:@&=+$,[]", URIC);
+		mark(":@&=+$,;/", PATH);
+		mark("$,;:@&=+[]", AUTHORITY);
+	}
+
+	private IRIValidator() {
+	}
+
+	private static void mark(int classes, int flags) {
+		for (int c = 0; c < CHARACTERS.length; c++) {
+			if ((CHARACTERS[c] & classes) != 0) {
+				CHARACTERS[c] |= flags;
+			}
+		}
+	}
+
+	private static void mark(String characters, int flags) {
+		for (int i = 0; i < characters.length(); i++) {
+			CHARACTERS[characters.charAt(i)] |= flags;
+		}
+	}
+
+	/**
+	 * @param iri
+	 *            The IRI to check
+	 * @return True if iri is a valid IRI with a scheme
+	 * @throws URISyntaxException
+	 *             If iri is not a valid IRI reference
+	 */
+	public static boolean isAbsolute(String iri) throws URISyntaxException {
+		return validate(iri) != -1;
+	}
+
+	/**
+	 * @param iri
+	 *            The IRI to check
+	 * @return Index of the colon ending the scheme or -1 if iri is relative
+	 * @throws URISyntaxException
+	 *             If iri is not a valid IRI reference
+	 */
+	public static int validate(String iri) throws URISyntaxException {
+		int n = iri.length();
+		int colon = -1;
+		for (int i = 0; i < n; i++) {
+			char c = iri.charAt(i);
+			if (c == ':') {
+				colon = i;
+				break;
+			} else if (c == '/' || c == '?' || c == '#') {
+				break;
+			}
+		}
+		if (colon == -1) {
+			validateHierarchical(iri, 0, n);
+			return -1;
+		}
+		// Scheme
+		if (colon == 0) {
+			throw new InvalidIRIException(iri, "Expected scheme name", 0);
+		}
+		if (is(iri.charAt(0), ALPHA) == false) {
+			throw new InvalidIRIException(iri,
+					"Illegal character in scheme name", 0);
+		}
+		for (int i = 1; i < colon; i++) {
+			if (is(iri.charAt(i), SCHEME) == false) {
+				throw new InvalidIRIException(iri,
+						"Illegal character in scheme name", i);
+			}
+		}
+		int p = colon + 1;
+		if (p < n && iri.charAt(p) == '/') {
+			validateHierarchical(iri, p, n);
+		} else {
+			// Opaque part
+			int hash = iri.indexOf('#', p);
+			int q = hash == -1 ? n : hash;
+			if (q == p) {
+				throw new InvalidIRIException(iri,
+						"Expected scheme-specific part", p);
+			}
+			check(iri, p, q, URIC, "opaque part");
+			if (hash != -1) {
+				check(iri, hash + 1, n, URIC, "fragment");
+			}
+		}
+		return colon;
+	}
+
+	private static void validateHierarchical(String iri, int p, int n)
+			throws URISyntaxException {
+		if (iri.startsWith("//", p) == true) {
+			p += 2;
+			int q = scan(iri, p, n, "/?#");
+			if (q > p) {
+				validateAuthority(iri, p, q);
+			} else if (q == n) {
+				throw new InvalidIRIException(iri, "Expected authority", p);
+			}
+			p = q;
+		}
+		// Path
+		int q = scan(iri, p, n, "?#");
+		check(iri, p, q, PATH, "path");
+		p = q;
+		if (p < n && iri.charAt(p) == '?') {
+			// Query
+			p++;
+			q = scan(iri, p, n, "#");
+			check(iri, p, q, URIC, "query");
+			p = q;
+		}
+		if (p < n) {
+			// Fragment
+			check(iri, p + 1, n, URIC, "fragment");
+		}
+	}
+
+	private static void validateAuthority(String iri, int p, int q)
+			throws URISyntaxException {
+		check(iri, p, q, AUTHORITY, "authority");
+		int open = iri.indexOf('[', p);
+		if (open != -1 && open < q) {
+			// IPv6 reference: [hex and colons or dots] followed by :port
+			if (open != p && iri.charAt(open - 1) != '@') {
+				throw new InvalidIRIException(iri,
+						"Illegal character in authority", open);
+			}
+			int close = iri.indexOf(']', open);
+			if (close == -1 || close > q
+					|| isIPv6Address(iri, open + 1, close) == false) {
+				throw new InvalidIRIException(iri, "Malformed IPv6 address",
+						open + 1);
+			}
+			int i = close + 1;
+			if (i < q) {
+				if (iri.charAt(i) != ':') {
+					throw new InvalidIRIException(iri,
+							"Illegal character in authority", i);
+				}
+				for (i++; i < q; i++) {
+					if (is(iri.charAt(i), DIGIT) == false) {
+						throw new InvalidIRIException(iri,
+								"Illegal character in port number", i);
+					}
+				}
+			}
+		} else {
+			int close = iri.indexOf(']', p);
+			if (close != -1 && close < q) {
+				throw new InvalidIRIException(iri,
+						"Illegal character in authority", close);
+			}
+		}
+	}
+
+	private static boolean isIPv6Address(String iri, int p, int q) {
+		int groups = 0;
+		boolean compressed = false;
+		int i = p;
+		if (iri.startsWith("::", i) == true) {
+			compressed = true;
+			i += 2;
+		}
+		while (i < q) {
+			int start = i;
+			while (i < q && is(iri.charAt(i), HEX) == true) {
+				i++;
+			}
+			if (i < q && iri.charAt(i) == '.') {
+				// Trailing IPv4 address takes two groups
+				if (isIPv4Address(iri, start, q) == false) {
+					return false;
+				}
+				groups += 2;
+				i = q;
+				break;
+			}
+			if (i == start || i - start > 4) {
+				return false;
+			}
+			groups++;
+			if (i < q) {
+				if (iri.charAt(i) != ':' || i + 1 == q) {
+					return false;
+				}
+				i++;
+				if (iri.charAt(i) == ':') {
+					if (compressed == true) {
+						return false;
+					}
+					compressed = true;
+					i++;
+				}
+			}
+		}
+		return compressed == true ? groups <= 7 : groups == 8;
+	}
+
+	private static boolean isIPv4Address(String iri, int p, int q) {
+		int octets = 0;
+		int i = p;
+		while (i < q) {
+			int start = i;
+			int value = 0;
+			while (i < q && is(iri.charAt(i), DIGIT) == true) {
+				value = value * 10 + iri.charAt(i) - '0';
+				i++;
+				if (value > 255) {
+					return false;
+				}
+			}
+			if (i == start) {
+				return false;
+			}
+			octets++;
+			if (i < q) {
+				if (iri.charAt(i) != '.' || i + 1 == q) {
+					return false;
+				}
+				i++;
+			}
+		}
+		return octets == 4;
+	}
+
+	private static int scan(String iri, int p, int n, String delimiters) {
+		for (int i = p; i < n; i++) {
+			if (delimiters.indexOf(iri.charAt(i)) != -1) {
+				return i;
+			}
+		}
+		return n;
+	}
+
+	private static void check(String iri, int p, int q, int flags,
+			String component) throws URISyntaxException {
+		for (int i = p; i < q; i++) {
+			char c = iri.charAt(i);
+			if (c == '%') {
+				// Escaped octet
+				if (i + 2 >= q || is(iri.charAt(i + 1), HEX) == false
+						|| is(iri.charAt(i + 2), HEX) == false) {
+					throw new InvalidIRIException(iri,
+							"Malformed escape pair", i);
+				}
+				i += 2;
+			} else if (c < 0x80) {
+				if ((CHARACTERS[c] & flags) == 0) {
+					throw new InvalidIRIException(iri, "Illegal character in "
+							+ component, i);
+				}
+			} else if (Character.isSpaceChar(c) == true
+					|| Character.isISOControl(c) == true) {
+				// Other characters are allowed except for spaces and
+				// controls
+				throw new InvalidIRIException(iri, "Illegal character in "
+						+ component, i);
+			}
+		}
+	}
+
+	private static boolean is(char c, int flags) {
+		return c < 0x80 && (CHARACTERS[c] & flags) != 0;
+	}
+
+	/**
+	 * URISyntaxException that skips the stack trace unless RDFaException
+	 * debug mode is on, as invalid references are routine in documents.
+	 */
+	private static class InvalidIRIException extends URISyntaxException {
+		private static final long serialVersionUID = 1L;
+
+		public InvalidIRIException(String input, String reason, int index) {
+			super(input, reason, index);
+		}
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return RDFaException.isDebug() == true ? super.fillInStackTrace()
+					: this;
+		}
+	}
+}
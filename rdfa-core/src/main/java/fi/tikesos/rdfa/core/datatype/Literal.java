@@ -22,7 +22,7 @@ package fi.tikesos.rdfa.core.datatype;
  * 
  */
 public class Literal {
-	private StringBuffer buffer;
+	private StringBuilder buffer;
 	private String value;
 	private Location location;
 
@@ -30,7 +30,7 @@ public class Literal {
 	 * Class constructor.
 	 */
 	public Literal() {
-		this.buffer = new StringBuffer();
+		this.buffer = new StringBuilder();
 		this.location = null;
 		this.value = null;
 	}
@@ -74,7 +74,7 @@ public class Literal {
 	/**
 	 * @return
 	 */
-	public StringBuffer getBuffer() {
+	public StringBuilder getBuffer() {
 		return buffer;
 	}
 
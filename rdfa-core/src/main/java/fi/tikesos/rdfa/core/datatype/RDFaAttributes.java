@@ -37,37 +37,158 @@ public class RDFaAttributes {
 	private List<Location> xmlnsLocation;
 	private List<PrefixMapping> prefix;
 	private Location prefixLocation;
-	private String []profile;
+	private TokenList profile;
 	private Location profileLocation;
-	private String []property;
+	private TokenList property;
 	private Location propertyLocation;
-	private String []rel;
+	private TokenList rel;
 	private Location relLocation;
 	private String resource;
 	private Location resourceLocation;
-	private String []rev;
+	private TokenList rev;
 	private Location revLocation;
 	private String src;
 	private Location srcLocation;
-	private String []typeof;
+	private TokenList typeof;
 	private Location typeofLocation;
 	private String vocab;
 	private Location vocabLocation;
 	private String lang;
 	private Location langLocation;
 	private Attributes attributes;
-	
+	// Reusable token lists
+	private TokenList profileTokens;
+	private TokenList propertyTokens;
+	private TokenList relTokens;
+	private TokenList revTokens;
+	private TokenList typeofTokens;
+	private TokenList prefixTokens;
+
+	/**
+	 * Constructor for reusable instance, see reset(Attributes).
+	 */
+	public RDFaAttributes() {
+		xmlns = new ArrayList<PrefixMapping>();
+		xmlnsLocation = new ArrayList<Location>();
+		prefix = new ArrayList<PrefixMapping>();
+		profileTokens = new TokenList();
+		propertyTokens = new TokenList();
+		relTokens = new TokenList();
+		revTokens = new TokenList();
+		typeofTokens = new TokenList();
+		prefixTokens = new TokenList();
+	}
+
 	/**
 	 * Constructor
 	 * 
 	 * @param Attributes the attributes
 	 */
 	public RDFaAttributes(Attributes attributes) {
-		xmlns = new ArrayList<PrefixMapping>();
-		xmlnsLocation = new ArrayList<Location>();
-		prefix = new ArrayList<PrefixMapping>();
+		this();
+		reset(attributes);
+	}
+
+	/**
+	 * Cheap check on raw attributes, done without processing them.
+	 * 
+	 * @param attributes
+	 *            the attributes
+	 * @return True if attributes contain any attribute processed by RDFa,
+	 *         including language and namespace declarations
+	 */
+	public static boolean hasRDFaAttributes(Attributes attributes) {
+		for (int i = 0; i < attributes.getCount(); i++) {
+			String attributeQName = attributes.getQName(i);
+			switch (attributeQName.length()) {
+			case 3:
+				if ("rel".equals(attributeQName) == true
+						|| "rev".equals(attributeQName) == true
+						|| "src".equals(attributeQName) == true) {
+					return true;
+				}
+				break;
+			case 4:
+				if ("href".equals(attributeQName) == true
+						|| "lang".equals(attributeQName) == true) {
+					return true;
+				}
+				break;
+			case 5:
+				if ("about".equals(attributeQName) == true
+						|| "vocab".equals(attributeQName) == true) {
+					return true;
+				}
+				break;
+			case 6:
+				if ("typeof".equals(attributeQName) == true
+						|| "prefix".equals(attributeQName) == true) {
+					return true;
+				}
+				break;
+			case 7:
+				if ("content".equals(attributeQName) == true
+						|| "profile".equals(attributeQName) == true) {
+					return true;
+				}
+				break;
+			case 8:
+				if ("datatype".equals(attributeQName) == true
+						|| "property".equals(attributeQName) == true
+						|| "resource".equals(attributeQName) == true
+						|| "xml:lang".equals(attributeQName) == true) {
+					return true;
+				}
+				break;
+			}
+			if (attributeQName.startsWith("xmlns") == true) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Forget previous element and process attributes of the next one.
+	 * 
+	 * @param attributes
+	 *            the attributes
+	 */
+	public void reset(Attributes attributes) {
+		about = null;
+		aboutLocation = null;
+		content = null;
+		contentLocation = null;
+		datatype = null;
+		datatypeLocation = null;
+		href = null;
+		hrefLocation = null;
+		defaultXmlns = null;
+		defaultXmlnsLocation = null;
+		xmlns.clear();
+		xmlnsLocation.clear();
+		prefix.clear();
+		prefixLocation = null;
+		profile = null;
+		profileLocation = null;
+		property = null;
+		propertyLocation = null;
+		rel = null;
+		relLocation = null;
+		resource = null;
+		resourceLocation = null;
+		rev = null;
+		revLocation = null;
+		src = null;
+		srcLocation = null;
+		typeof = null;
+		typeofLocation = null;
+		vocab = null;
+		vocabLocation = null;
+		lang = null;
+		langLocation = null;
 		this.attributes = attributes;
-		
+
 		// Process attributes
 		for (int i = 0; i < attributes.getCount(); i++) {
 			String attributeQName = attributes.getQName(i);
@@ -110,39 +231,38 @@ public class RDFaAttributes {
 			case 'p':
 				if ("profile".equals(attributeQName) == true) {
 					// @profile
-					profile = attributes.getValue(i).trim()
-							.split("\\s");
+					profile = profileTokens;
+					profile.tokenize(attributes.getValue(i));
 					profileLocation = attributes.getLocation(i);
 				} else if ("prefix".equals(attributeQName) == true) {
 					// @prefix
-					String[] prefix = attributes.getValue(i).trim().split("\\s+");
-					for (int n = 0; n < prefix.length; n += 2) {
-						if (prefix[n].endsWith(":") == true) {
-							this.prefix.add
-									(new PrefixMapping(
-											prefix[n].substring(0,
-													prefix[n].length() - 1),
-											prefix[n + 1]));
+					prefixTokens.tokenize(attributes.getValue(i));
+					for (int n = 0; n + 1 < prefixTokens.size(); n += 2) {
+						String name = prefixTokens.get(n);
+						if (name.endsWith(":") == true) {
+							this.prefix.add(new PrefixMapping(name.substring(
+									0, name.length() - 1), prefixTokens
+									.get(n + 1)));
 						} // Else exception?
 					}
 					prefixLocation = attributes.getLocation(i);
 				} else if ("property".equals(attributeQName) == true) {
 					// @property
-					property = attributes.getValue(i).trim()
-							.split("\\s+");
+					property = propertyTokens;
+					property.tokenize(attributes.getValue(i));
 					propertyLocation = attributes.getLocation(i);
 				}
 				break;
 			case 'r':
 				if ("rev".equals(attributeQName) == true) {
 					// @rev
-					rev = attributes.getValue(i).trim()
-							.split("\\s+");
+					rev = revTokens;
+					rev.tokenize(attributes.getValue(i));
 					revLocation = attributes.getLocation(i);
 				} else if ("rel".equals(attributeQName) == true) {
 					// @rel
-					rel = attributes.getValue(i).trim()
-							.split("\\s+");
+					rel = relTokens;
+					rel.tokenize(attributes.getValue(i));
 					relLocation = attributes.getLocation(i);
 				} else if ("resource".equals(attributeQName) == true) {
 					// @resource
@@ -160,8 +280,8 @@ public class RDFaAttributes {
 			case 't':
 				if ("typeof".equals(attributeQName) == true) {
 					// @typeof
-					typeof = attributes.getValue(i).trim()
-							.split("\\s+");
+					typeof = typeofTokens;
+					typeof.tokenize(attributes.getValue(i));
 					typeofLocation = attributes.getLocation(i);
 				}
 				break;
@@ -238,19 +358,19 @@ public class RDFaAttributes {
 	/**
 	 * @return the profile
 	 */
-	public String[] getProfile() {
+	public TokenList getProfile() {
 		return profile;
 	}
 	/**
 	 * @return the property
 	 */
-	public String[] getProperty() {
+	public TokenList getProperty() {
 		return property;
 	}
 	/**
 	 * @return the rel
 	 */
-	public String[] getRel() {
+	public TokenList getRel() {
 		return rel;
 	}
 	/**
@@ -262,7 +382,7 @@ public class RDFaAttributes {
 	/**
 	 * @return the rev
 	 */
-	public String[] getRev() {
+	public TokenList getRev() {
 		return rev;
 	}
 	/**
@@ -274,7 +394,7 @@ public class RDFaAttributes {
 	/**
 	 * @return the typeof
 	 */
-	public String[] getTypeof() {
+	public TokenList getTypeof() {
 		return typeof;
 	}
 	/**
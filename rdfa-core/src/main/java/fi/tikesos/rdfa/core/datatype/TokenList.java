@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.datatype;
+
+/**
+ * Reusable list of whitespace separated tokens. Tokens are scanned without
+ * regular expressions into an array that is retained between uses.
+ * 
+ * @author ssakorho
+ * 
+ */
+public class TokenList {
+	private String[] tokens;
+	private int size;
+
+	/**
+	 * Class constructor.
+	 */
+	public TokenList() {
+		this.tokens = new String[4];
+		this.size = 0;
+	}
+
+	/**
+	 * Replace the content of the list with whitespace separated tokens of
+	 * value.
+	 * 
+	 * @param value
+	 *            The value to be tokenized.
+	 */
+	public void tokenize(String value) {
+		int length = value.length();
+		int i = 0;
+		int previousSize = size;
+		size = 0;
+		while (i < length) {
+			// Skip whitespace
+			while (i < length && isWhitespace(value.charAt(i)) == true) {
+				i++;
+			}
+			if (i == length) {
+				break;
+			}
+			// Token
+			int start = i;
+			while (i < length && isWhitespace(value.charAt(i)) == false) {
+				i++;
+			}
+			add(start == 0 && i == length ? value : value.substring(start, i));
+		}
+		// Release stale tokens
+		for (int n = size; n < previousSize; n++) {
+			tokens[n] = null;
+		}
+	}
+
+	/**
+	 * @param token
+	 *            The token to be added.
+	 */
+	public void add(String token) {
+		if (size == tokens.length) {
+			String[] grown = new String[size * 2];
+			System.arraycopy(tokens, 0, grown, 0, size);
+			tokens = grown;
+		}
+		tokens[size++] = token;
+	}
+
+	/**
+	 * @param index
+	 *            The token index (zero-based).
+	 * @return The token.
+	 */
+	public String get(int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: "
+					+ size);
+		}
+		return tokens[index];
+	}
+
+	/**
+	 * @return The number of tokens.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return True if there are no tokens, otherwise false.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Remove all tokens
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			tokens[i] = null;
+		}
+		size = 0;
+	}
+
+	/**
+	 * @param c
+	 * @return True if c is whitespace as in regular expression \s
+	 */
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f'
+				|| c == '\u000B';
+	}
+}
@@ -38,4 +38,17 @@ public class NotCURIEorURIException extends RDFaException {
 			Throwable cause) {
 		super(elementName, location, cause);
 	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param elementName
+	 * @param location
+	 * @param failureCode
+	 * @param value
+	 */
+	public NotCURIEorURIException(String elementName, Location location,
+			int failureCode, String value) {
+		super(elementName, location, failureCode, value);
+	}
 }
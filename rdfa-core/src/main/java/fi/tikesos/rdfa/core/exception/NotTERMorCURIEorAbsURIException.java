@@ -39,4 +39,18 @@ public class NotTERMorCURIEorAbsURIException extends RDFaException {
 			Throwable cause) {
 		super(elementName, location, cause);
 	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param elementName
+	 * @param location
+	 * @param failureCode
+	 * @param value
+	 */
+	public NotTERMorCURIEorAbsURIException(String elementName,
+			Location location,
+			int failureCode, String value) {
+		super(elementName, location, failureCode, value);
+	}
 }
@@ -15,12 +15,31 @@
  */
 package fi.tikesos.rdfa.core.exception;
 
+import java.net.URISyntaxException;
+
 import fi.tikesos.rdfa.core.datatype.Location;
 
+/**
+ * RDFaException is the base of all reported RDFa processing errors.
+ * Warnings are routine on real documents, so unless debug mode is on the
+ * exceptions are created without a stack trace.
+ * 
+ * @author ssakorho
+ *
+ */
 public class RDFaException extends Exception {
 	private static final long serialVersionUID = 1L;
+	public static final int NO_FAILURE = 0;
+	public static final int NOT_ABSOLUTE_URI = 1;
+	public static final int UNDEFINED_VOCABULARY = 2;
+	public static final int INVALID_TERM = 3;
+	public static final int INVALID_SAFE_CURIE = 4;
+	public static final int INVALID_URI = 5;
+	private static volatile boolean debug = false;
 	private Location location;
 	private String elementName;
+	private int failureCode = NO_FAILURE;
+	private String value;
 
 	/**
 	 * Constructor
@@ -47,6 +66,93 @@ public class RDFaException extends Exception {
 		this.location = location;
 	}
 
+	/**
+	 * Constructor for failures reported as a code by the expansion. The
+	 * message is only formatted on demand and, in debug mode, a
+	 * URISyntaxException is attached as the cause.
+	 * 
+	 * @param elementName
+	 * @param location
+	 * @param failureCode
+	 * @param value
+	 *            Value that failed to expand
+	 */
+	public RDFaException(String elementName, Location location,
+			int failureCode, String value) {
+		super();
+		this.elementName = elementName;
+		this.location = location;
+		this.failureCode = failureCode;
+		this.value = value;
+		if (debug == true) {
+			initCause(new URISyntaxException(value,
+					getFailureMessage(failureCode)));
+		}
+	}
+
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+		return debug == true ? super.fillInStackTrace() : this;
+	}
+
+	/**
+	 * @param debug
+	 *            True to capture stack traces of new exceptions
+	 */
+	public static void setDebug(boolean debug) {
+		RDFaException.debug = debug;
+	}
+
+	/**
+	 * @return
+	 */
+	public static boolean isDebug() {
+		return debug;
+	}
+
+	/**
+	 * @param failureCode
+	 * @return Description of the failure code
+	 */
+	public static String getFailureMessage(int failureCode) {
+		switch (failureCode) {
+		case NOT_ABSOLUTE_URI:
+			return "not an absolute uri";
+		case UNDEFINED_VOCABULARY:
+			return "define no prefix vocabulary or add prefix to term";
+		case INVALID_TERM:
+			return "not a valid term";
+		case INVALID_SAFE_CURIE:
+			return "not a valid safe curie";
+		case INVALID_URI:
+			return "not a valid uri";
+		default:
+			return null;
+		}
+	}
+
+	@Override
+	public String getMessage() {
+		if (failureCode != NO_FAILURE) {
+			return getFailureMessage(failureCode) + ": " + value;
+		}
+		return super.getMessage();
+	}
+
+	/**
+	 * @return Failure code or NO_FAILURE
+	 */
+	public int getFailureCode() {
+		return failureCode;
+	}
+
+	/**
+	 * @return Value that failed to expand or null
+	 */
+	public String getValue() {
+		return value;
+	}
+
 	/**
 	 * @return
 	 */
@@ -54,6 +160,14 @@ public class RDFaException extends Exception {
 		return location;
 	}
 
+	/**
+	 * @param location
+	 *            Location resolved when the exception is reported
+	 */
+	public void setLocation(Location location) {
+		this.location = location;
+	}
+
 	/**
 	 * @return
 	 */
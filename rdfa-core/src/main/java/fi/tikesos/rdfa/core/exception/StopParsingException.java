@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.exception;
+
+/**
+ * StopParsingException is thrown by a TripleSink or ExtractionFilter to
+ * signal that enough has been extracted. The parser ends the document and
+ * reports status RDFaParser.PARSING_STOPPED. No stack trace is recorded,
+ * since the exception is used for control flow only.
+ * 
+ * @author ssakorho
+ * 
+ */
+public class StopParsingException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param message
+	 *            Reason for stopping
+	 */
+	public StopParsingException(String message) {
+		super(message);
+	}
+
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+		return this;
+	}
+}
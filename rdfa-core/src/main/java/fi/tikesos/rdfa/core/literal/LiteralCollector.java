@@ -15,7 +15,6 @@
  */
 package fi.tikesos.rdfa.core.literal;
 
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -29,15 +28,27 @@ import fi.tikesos.rdfa.core.datatype.RDFaAttributes;
 import fi.tikesos.rdfa.core.util.StringEscapeUtils;
 
 /**
- * Helper class for collecting Literal and XMLLiteral values.
+ * Helper class for collecting Literal and XMLLiteral values. Nested literals
+ * of the same kind share one buffer, so that text is appended once and the
+ * value of each literal is a slice of the buffer from its start offset.
  * 
  * @author ssakorho
  * 
  */
 public class LiteralCollector {
-	private Stack<Literal> literal;
+	private StringBuilder literal;
+	private int[] literalStart;
+	private int literalCount;
+	private StringBuilder xml;
 	private Stack<XMLLiteralWrapper> xmlLiteral;
-	private List<List<PrefixMapping>> inheritedNS;
+	// Namespaces declared by open elements, nsMark[depth] is where the
+	// declarations of the element at depth begin
+	private String[] nsPrefix;
+	private String[] nsReference;
+	private int nsCount;
+	private int[] nsMark;
+	// Scratch set of prefixes declared on XML literal root
+	private Set<String> registeredPrefix;
 	private int depth;
 	private boolean implicitClose;
 
@@ -45,25 +56,61 @@ public class LiteralCollector {
 	 * Class constructor.
 	 */
 	public LiteralCollector() {
-		literal = new Stack<Literal>();
+		literal = new StringBuilder();
+		literalStart = new int[8];
+		literalCount = 0;
+		xml = new StringBuilder();
 		xmlLiteral = new Stack<XMLLiteralWrapper>();
-		inheritedNS = new ArrayList<List<PrefixMapping>>();
+		nsPrefix = new String[16];
+		nsReference = new String[16];
+		nsCount = 0;
+		nsMark = new int[16];
+		registeredPrefix = new HashSet<String>();
 		implicitClose = false;
 		depth = 0;
 	}
 
+	/**
+	 * @return True if an XML literal is being collected
+	 */
+	public boolean isCollectingXML() {
+		return xmlLiteral.isEmpty() == false;
+	}
+
+	/**
+	 * @return True if a plain or XML literal is being collected
+	 */
+	public boolean isCollecting() {
+		return literalCount > 0 || xmlLiteral.isEmpty() == false;
+	}
+
+	/**
+	 * Collect start element declaring no namespaces while no XML literal is
+	 * being collected. Element is closed with collectCloseElement.
+	 */
+	public void collectPlainStartElement() {
+		markNamespaces();
+		implicitClose = true;
+		depth++;
+	}
+
 	/**
 	 * Start collecting literal
 	 */
 	public void startCollecting() {
-		literal.push(new Literal());
+		if (literalCount == literalStart.length) {
+			int[] grown = new int[literalStart.length * 2];
+			System.arraycopy(literalStart, 0, grown, 0, literalCount);
+			literalStart = grown;
+		}
+		literalStart[literalCount++] = literal.length();
 	}
 
 	/**
 	 * Start collecting XML literal
 	 */
 	public void startCollectingXML() {
-		xmlLiteral.push(new XMLLiteralWrapper(new Literal(), depth));
+		xmlLiteral.push(new XMLLiteralWrapper(xml.length(), depth));
 	}
 
 	/**
@@ -76,19 +123,17 @@ public class LiteralCollector {
 	public void collectCharacters(String toCollect, boolean shouldEncode,
 			Location location) {
 		if (xmlLiteral.isEmpty() == false) {
-			Literal lit = xmlLiteral.peek().getXMLLiteral();
 			if (shouldEncode == true) {
 				// Encoded
-				StringEscapeUtils.escapeXML(toCollect, lit.getBuffer());
+				StringEscapeUtils.escapeXML(toCollect, xml);
 			} else {
 				// Plain
-				lit.append(toCollect);
+				xml.append(toCollect);
 			}
 		}
-		if (literal.isEmpty() == false) {
+		if (literalCount > 0) {
 			// Plain
-			Literal lit = literal.peek();
-			lit.append(toCollect);
+			literal.append(toCollect);
 		}
 		implicitClose = false;
 	}
@@ -105,20 +150,17 @@ public class LiteralCollector {
 	public void collectCharacters(char[] toCollect, int start, int length,
 			boolean shouldEncode, Location location) {
 		if (xmlLiteral.isEmpty() == false) {
-			Literal lit = xmlLiteral.peek().getXMLLiteral();
 			if (shouldEncode == true) {
 				// Encoded
-				StringEscapeUtils.escapeXML(toCollect, start, length,
-						lit.getBuffer());
+				StringEscapeUtils.escapeXML(toCollect, start, length, xml);
 			} else {
 				// Plain
-				lit.append(toCollect, start, length);
+				xml.append(toCollect, start, length);
 			}
 		}
-		if (literal.isEmpty() == false) {
+		if (literalCount > 0) {
 			// Plain
-			Literal lit = literal.peek();
-			lit.append(toCollect, start, length);
+			literal.append(toCollect, start, length);
 		}
 		implicitClose = false;
 	}
@@ -132,16 +174,17 @@ public class LiteralCollector {
 		Literal result;
 		if (xmlLiteral.isEmpty() == true
 				|| xmlLiteral.peek().getDepth() != depth) {
-			result = literal.pop();
-			if (literal.isEmpty() == false) {
-				// Copy to parent Literal
-				literal.peek().append(result);
+			int start = literalStart[--literalCount];
+			result = new Literal(literal.substring(start), null);
+			if (literalCount == 0) {
+				// Parent literals keep the text, otherwise reuse buffer
+				literal.setLength(0);
 			}
 		} else {
-			result = xmlLiteral.pop().getXMLLiteral();
-			if (xmlLiteral.isEmpty() == false) {
-				// Copy to parent XMLLiteral
-				xmlLiteral.peek().getXMLLiteral().append(result);
+			int start = xmlLiteral.pop().getStart();
+			result = new Literal(xml.substring(start), null);
+			if (xmlLiteral.isEmpty() == true) {
+				xml.setLength(0);
 			}
 		}
 		return result;
@@ -161,23 +204,22 @@ public class LiteralCollector {
 		if (xmlLiteral.isEmpty() == false) {
 			// <ELEMENT
 			XMLLiteralWrapper wrapper = xmlLiteral.peek();
-			Literal literal = wrapper.getXMLLiteral();
 
-			literal.append("<");
-			literal.append(qName);
+			xml.append("<");
+			xml.append(qName);
 
 			Attributes attributes = rdfaAttributes.getAttributes();
 			if (depth == wrapper.getDepth()) {
 				// ATTRIBUTE="VALUE"
-				Set<String> registeredPrefix = new HashSet<String>();
+				registeredPrefix.clear();
 				for (int i = 0; i < attributes.getCount(); i++) {
 					String attributeQName = attributes.getQName(i);
-					literal.append(" ");
-					literal.append(attributeQName);
-					literal.append("=\"");
+					xml.append(" ");
+					xml.append(attributeQName);
+					xml.append("=\"");
 					StringEscapeUtils.escapeXML(attributes.getValue(i),
-							literal.getBuffer());
-					literal.append("\"");
+							xml);
+					xml.append("\"");
 
 					if (attributeQName.startsWith("xmlns") == true) {
 						// Register namespace
@@ -194,49 +236,51 @@ public class LiteralCollector {
 					}
 				}
 
-				// Add inherited namespaces
-				for (int n = inheritedNS.size(); n-- > 0;) {
-					for (PrefixMapping pm : inheritedNS.get(n)) {
-						if (registeredPrefix.contains(pm.getPrefix()) == false) {
+				// Add inherited namespaces, innermost element first
+				int end = nsCount;
+				for (int n = depth; n-- > 0;) {
+					for (int i = nsMark[n]; i < end; i++) {
+						String prefix = nsPrefix[i];
+						if (registeredPrefix.add(prefix) == true) {
 							// XMLNS="URI"
-							literal.append(" xmlns");
-							if (pm.getPrefix().isEmpty() == false) {
-								literal.append(":");
-								literal.append(pm.getPrefix());
+							xml.append(" xmlns");
+							if (prefix.isEmpty() == false) {
+								xml.append(":");
+								xml.append(prefix);
 							}
-							literal.append("=\"");
-							StringEscapeUtils.escapeXML(pm.getReference(),
-									literal.getBuffer());
-							literal.append("\"");
-							registeredPrefix.add(pm.getPrefix());
+							xml.append("=\"");
+							StringEscapeUtils.escapeXML(nsReference[i], xml);
+							xml.append("\"");
 						}
 					}
+					end = nsMark[n];
 				}
 			} else {
 				for (int i = 0; i < attributes.getCount(); i++) {
 					// ATTRIBUTE="VALUE"
-					literal.append(" ");
-					literal.append(attributes.getQName(i));
-					literal.append("=\"");
+					xml.append(" ");
+					xml.append(attributes.getQName(i));
+					xml.append("=\"");
 					StringEscapeUtils.escapeXML(attributes.getValue(i),
-							literal.getBuffer());
-					literal.append("\"");
+							xml);
+					xml.append("\"");
 				}
 			}
 			// >
-			literal.append(">");
+			xml.append(">");
 		}
 		// Save namespaces for XMLLiteral
-		List<PrefixMapping> pm = new ArrayList<PrefixMapping>(
-				1 + (rdfaAttributes.getXmlns() != null ? rdfaAttributes
-						.getXmlns().size() : 0));
+		markNamespaces();
 		if (rdfaAttributes.getDefaultXmlns() != null) {
-			pm.add(new PrefixMapping("", rdfaAttributes.getDefaultXmlns()));
+			pushNamespace("", rdfaAttributes.getDefaultXmlns());
 		}
-		if (rdfaAttributes.getXmlns() != null) {
-			pm.addAll(rdfaAttributes.getXmlns());
+		List<PrefixMapping> xmlns = rdfaAttributes.getXmlns();
+		if (xmlns != null) {
+			for (int i = 0; i < xmlns.size(); i++) {
+				pushNamespace(xmlns.get(i).getPrefix(), xmlns.get(i)
+						.getReference());
+			}
 		}
-		inheritedNS.add(pm);
 		implicitClose = true;
 		depth++;
 	}
@@ -252,21 +296,51 @@ public class LiteralCollector {
 	public void collectCloseElement(String uri, String localName, String qName,
 			Location location) {
 		if (xmlLiteral.isEmpty() == false) {
-			XMLLiteralWrapper wrapper = xmlLiteral.peek();
-			Literal literal = wrapper.getXMLLiteral();
 			if (implicitClose == true) {
 				// Implicit close
-				literal.setLength(literal.length() - 1);
-				literal.append(" />");
+				xml.setLength(xml.length() - 1);
+				xml.append(" />");
 			} else {
 				// Explicit close
-				literal.append("</");
-				literal.append(qName);
-				literal.append(">");
+				xml.append("</");
+				xml.append(qName);
+				xml.append(">");
 			}
 		}
-		inheritedNS.remove(inheritedNS.size() - 1);
 		implicitClose = false;
 		depth--;
+		nsCount = nsMark[depth];
+	}
+
+	/**
+	 * Mark where namespaces declared by current element begin
+	 */
+	private void markNamespaces() {
+		if (depth == nsMark.length) {
+			int[] grown = new int[nsMark.length * 2];
+			System.arraycopy(nsMark, 0, grown, 0, depth);
+			nsMark = grown;
+		}
+		nsMark[depth] = nsCount;
+	}
+
+	/**
+	 * Save namespace declared by current element
+	 * 
+	 * @param prefix
+	 * @param reference
+	 */
+	private void pushNamespace(String prefix, String reference) {
+		if (nsCount == nsPrefix.length) {
+			String[] grownPrefix = new String[nsCount * 2];
+			String[] grownReference = new String[nsCount * 2];
+			System.arraycopy(nsPrefix, 0, grownPrefix, 0, nsCount);
+			System.arraycopy(nsReference, 0, grownReference, 0, nsCount);
+			nsPrefix = grownPrefix;
+			nsReference = grownReference;
+		}
+		nsPrefix[nsCount] = prefix;
+		nsReference[nsCount] = reference;
+		nsCount++;
 	}
 }
@@ -15,31 +15,30 @@
  */
 package fi.tikesos.rdfa.core.literal;
 
-import fi.tikesos.rdfa.core.datatype.Literal;
-
 /**
- * XMLLiteral wrapper class.
+ * XMLLiteral wrapper class. Open XML literals share one buffer, each
+ * starting from its own offset.
  * 
  * @author ssakorho
  *
  */
 public class XMLLiteralWrapper {
-	private Literal literal;
+	private int start;
 	private int depth;
 	
 	/**
 	 * Constructor
 	 */
-	public XMLLiteralWrapper(Literal literal, int depth) {
-		this.literal = literal;
+	public XMLLiteralWrapper(int start, int depth) {
+		this.start = start;
 		this.depth = depth;
 	}
 	
 	/**
-	 * @return
+	 * @return Offset of the literal in the shared buffer
 	 */
-	public Literal getXMLLiteral() {
-		return literal;
+	public int getStart() {
+		return start;
 	}
 	
 	/**
@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.parser;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Memoized TERMorCURIEorAbsURI and CURIEorURI expansions for one set of
+ * prefix, term and vocabulary mappings. Only expansions that do not
+ * depend on the base are stored.
+ * 
+ * @author ssakorho
+ * 
+ */
+public class ExpansionCache {
+	private static final int MAX_ENTRIES = 1024;
+	private Map<String, String> TERMorCURIEorAbsURI;
+	private Map<String, String> CURIEorURI;
+
+	/**
+	 * Class constructor.
+	 */
+	public ExpansionCache() {
+		this.TERMorCURIEorAbsURI = new HashMap<String, String>();
+		this.CURIEorURI = new HashMap<String, String>();
+	}
+
+	/**
+	 * Forget all expansions, called whenever the mappings change
+	 */
+	public void invalidate() {
+		if (TERMorCURIEorAbsURI.isEmpty() == false) {
+			TERMorCURIEorAbsURI.clear();
+		}
+		if (CURIEorURI.isEmpty() == false) {
+			CURIEorURI.clear();
+		}
+	}
+
+	/**
+	 * @param token
+	 * @return The expanded IRI or null
+	 */
+	public String getTERMorCURIEorAbsURI(String token) {
+		return TERMorCURIEorAbsURI.get(token);
+	}
+
+	/**
+	 * @param token
+	 * @param expanded
+	 */
+	public void putTERMorCURIEorAbsURI(String token, String expanded) {
+		if (TERMorCURIEorAbsURI.size() < MAX_ENTRIES) {
+			TERMorCURIEorAbsURI.put(token, expanded);
+		}
+	}
+
+	/**
+	 * @param token
+	 * @return The expanded IRI or null
+	 */
+	public String getCURIEorURI(String token) {
+		return CURIEorURI.get(token);
+	}
+
+	/**
+	 * @param token
+	 * @param expanded
+	 */
+	public void putCURIEorURI(String token, String expanded) {
+		if (CURIEorURI.size() < MAX_ENTRIES) {
+			CURIEorURI.put(token, expanded);
+		}
+	}
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.parser;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Allow and deny lists of predicate and type IRIs deciding which triples
+ * RDFaParser generates. When an allow list is empty every IRI not on the
+ * deny list is accepted. Type triples are decided by the type lists only.
+ * Literals are not collected for elements none of whose @property
+ * predicates are accepted.
+ * 
+ * @author ssakorho
+ * 
+ */
+public class ExtractionFilter {
+	private Set<String> allowedPredicates = new HashSet<String>();
+	private Set<String> deniedPredicates = new HashSet<String>();
+	private Set<String> allowedTypes = new HashSet<String>();
+	private Set<String> deniedTypes = new HashSet<String>();
+
+	/**
+	 * @param predicate
+	 *            Predicate IRI to accept
+	 */
+	public void allowPredicate(String predicate) {
+		allowedPredicates.add(predicate);
+	}
+
+	/**
+	 * @param predicate
+	 *            Predicate IRI to reject
+	 */
+	public void denyPredicate(String predicate) {
+		deniedPredicates.add(predicate);
+	}
+
+	/**
+	 * @param type
+	 *            Type IRI to accept
+	 */
+	public void allowType(String type) {
+		allowedTypes.add(type);
+	}
+
+	/**
+	 * @param type
+	 *            Type IRI to reject
+	 */
+	public void denyType(String type) {
+		deniedTypes.add(type);
+	}
+
+	/**
+	 * @param predicate
+	 *            Predicate IRI
+	 * @return True if triples with the predicate should be generated
+	 */
+	public boolean acceptPredicate(String predicate) {
+		return accept(predicate, allowedPredicates, deniedPredicates);
+	}
+
+	/**
+	 * @param type
+	 *            Type IRI
+	 * @return True if rdf:type triples with the type should be generated
+	 */
+	public boolean acceptType(String type) {
+		return accept(type, allowedTypes, deniedTypes);
+	}
+
+	private static boolean accept(String iri, Set<String> allowed,
+			Set<String> denied) {
+		if (allowed.isEmpty() == false && allowed.contains(iri) == false) {
+			return false;
+		}
+		return denied.contains(iri) == false;
+	}
+}
@@ -15,20 +15,22 @@
  */
 package fi.tikesos.rdfa.core.parser;
 
-import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import org.apache.xerces.util.XMLChar;
 
 import fi.tikesos.rdfa.core.datatype.BaseURI;
 import fi.tikesos.rdfa.core.datatype.IncompleteTriple;
 import fi.tikesos.rdfa.core.datatype.Component;
+import fi.tikesos.rdfa.core.datatype.IRIDictionary;
+import fi.tikesos.rdfa.core.datatype.IRIValidator;
 import fi.tikesos.rdfa.core.datatype.Language;
 import fi.tikesos.rdfa.core.datatype.Literal;
 import fi.tikesos.rdfa.core.datatype.Location;
+import fi.tikesos.rdfa.core.datatype.TokenList;
+import fi.tikesos.rdfa.core.exception.RDFaException;
+import fi.tikesos.rdfa.core.util.ScopedMap;
 
 /**
  * ProcessingContext contains both Local Context and Evaluation Context defined
@@ -46,18 +48,24 @@ public class ProcessingContext {
 	private Component newSubject = null;
 	private Component currentObjectResource = null;
 	private Literal content = null;
-	private String[] property = null;
+	private TokenList property = null;
 	private Location propertyLocation = null;
 	private Component datatype = null;
 	// Custom data: flag to indicate profile loading has failed
 	private boolean profileFailed = false;
 	// Shared between Local Context and Evaluation Context
 	private List<IncompleteTriple> incompleteTriples = null;
-	private Map<String, String> prefixMappings = null;
-	private Map<String, String> termMappings = null;
+	private ScopedMap prefixMappings = null;
+	private ScopedMap termMappings = null;
 	private Language language = null;
 	private String vocabulary = null;
 	private BaseURI base = null;
+	// Expansions valid for the current mappings, shared with the parent
+	// context until either one changes its mappings
+	private ExpansionCache expansionCache = null;
+	private IRIDictionary iriDictionary = null;
+	// Reason of the latest failed expansion
+	private int expansionFailure = RDFaException.NO_FAILURE;
 	// Evaluation Context specific
 	private Component parentSubject = null;
 	private Component parentObject = null;
@@ -70,9 +78,10 @@ public class ProcessingContext {
 	public ProcessingContext(String baseURI) throws URISyntaxException {
 		this.base = new BaseURI(baseURI);
 		this.incompleteTriples = null;
-		this.prefixMappings = new HashMap<String, String>();
-		this.termMappings = new HashMap<String, String>();
+		this.prefixMappings = new ScopedMap();
+		this.termMappings = new ScopedMap(true);
 		this.blankNodeHandler = new BlankNodeHandler();
+		this.expansionCache = new ExpansionCache();
 		// Register default prefix
 		this.prefixMappings.put("", "http://www.w3.org/1999/xhtml/vocab#");
 	}
@@ -81,6 +90,24 @@ public class ProcessingContext {
 	 * @param localContext
 	 */
 	public ProcessingContext(ProcessingContext localContext) {
+		reset(localContext);
+	}
+
+	/**
+	 * Reinitialize this context as a child of localContext, allowing context
+	 * instances to be reused between elements.
+	 * 
+	 * @param localContext
+	 */
+	public void reset(ProcessingContext localContext) {
+		// Clear Local Context
+		this.newSubject = null;
+		this.currentObjectResource = null;
+		this.content = null;
+		this.property = null;
+		this.propertyLocation = null;
+		this.datatype = null;
+		this.incompleteTriples = null;
 		if (localContext.isSkipElement() == true) {
 			// If the skip element flag is 'true' then the new evaluation
 			// context is a copy of the current context that was passed in
@@ -134,9 +161,16 @@ public class ProcessingContext {
 		this.profileFailed = localContext.isProfileFailed();
 		this.parentContext = localContext;
 		this.blankNodeHandler = localContext.getBlankNodeHandler();
+		this.iriDictionary = localContext.getIRIDictionary();
 		this.prefixMappings = localContext.getPrefixMappings();
 		this.termMappings = localContext.getTermMappings();
 		this.language = localContext.getLanguage();
+		if (this.vocabulary == localContext.getVocabulary()) {
+			this.expansionCache = localContext.getExpansionCache();
+		} else {
+			// Vocabulary differs from the one cached expansions were made with
+			this.expansionCache = new ExpansionCache();
+		}
 	}
 
 	/**
@@ -167,6 +201,26 @@ public class ProcessingContext {
 		return profileFailed;
 	}
 
+	/**
+	 * @return The expansion cache
+	 */
+	public ExpansionCache getExpansionCache() {
+		return expansionCache;
+	}
+
+	/**
+	 * Invalidate expansions after prefix, term or vocabulary mappings change
+	 */
+	private void mappingsChanged() {
+		if (parentContext != null
+				&& parentContext.getExpansionCache() == expansionCache) {
+			// Parent still relies on the shared expansions
+			expansionCache = new ExpansionCache();
+		} else {
+			expansionCache.invalidate();
+		}
+	}
+
 	/**
 	 * @return The current base
 	 */
@@ -244,7 +298,7 @@ public class ProcessingContext {
 	/**
 	 * @return the property
 	 */
-	public String[] getProperty() {
+	public TokenList getProperty() {
 		return property;
 	}
 
@@ -252,7 +306,7 @@ public class ProcessingContext {
 	 * @param property
 	 *            the property to set
 	 */
-	public void setProperty(String[] property) {
+	public void setProperty(TokenList property) {
 		this.property = property;
 	}
 
@@ -339,16 +393,18 @@ public class ProcessingContext {
 			// '_' is prohibited namespace prefix
 			if (parentContext != null
 					&& prefixMappings == parentContext.getPrefixMappings()) {
-				prefixMappings = new HashMap<String, String>(prefixMappings);
+				// First mapping in this scope
+				prefixMappings = prefixMappings.createChild();
 			}
 			prefixMappings.put(prefix.toLowerCase(), uri);
+			mappingsChanged();
 		}
 	}
 
 	/**
 	 * @return
 	 */
-	public Map<String, String> getPrefixMappings() {
+	public ScopedMap getPrefixMappings() {
 		return prefixMappings;
 	}
 	
@@ -367,13 +423,8 @@ public class ProcessingContext {
 	public String resolveTerm(String term) {
 		String uri = termMappings.get(term);
 		if (uri == null) {
-			// Falling to case-insensitive matching (slow!)
-			for (String registeredTerm : termMappings.keySet()) {
-				if (term.equalsIgnoreCase(registeredTerm) == true) {
-					uri = termMappings.get(registeredTerm);
-					break;
-				}
-			}
+			// Falling to case-insensitive matching
+			uri = termMappings.getIgnoreCase(term);
 		}
 		return uri;
 	}
@@ -385,15 +436,17 @@ public class ProcessingContext {
 	public void registerTerm(String term, String uri) {
 		if (parentContext != null
 				&& parentContext.getTermMappings() == termMappings) {
-			termMappings = new HashMap<String, String>(termMappings);
+			// First mapping in this scope
+			termMappings = termMappings.createChild();
 		}
 		termMappings.put(term, uri);
+		mappingsChanged();
 	}
 
 	/**
 	 * @return
 	 */
-	public Map<String, String> getTermMappings() {
+	public ScopedMap getTermMappings() {
 		return termMappings;
 	}
 
@@ -451,7 +504,11 @@ public class ProcessingContext {
 	 * @param vocabulary
 	 */
 	public void setVocabulary(String vocabulary) {
-		this.vocabulary = vocabulary;
+		if (vocabulary == null ? this.vocabulary != null : vocabulary
+				.equals(this.vocabulary) == false) {
+			this.vocabulary = vocabulary;
+			mappingsChanged();
+		}
 	}
 
 	/**
@@ -462,69 +519,122 @@ public class ProcessingContext {
 		this.base.setURI(base);
 	}
 
+	/**
+	 * @param iriDictionary
+	 *            The IRI dictionary to intern expanded IRIs with
+	 */
+	public void setIRIDictionary(IRIDictionary iriDictionary) {
+		this.iriDictionary = iriDictionary;
+	}
+
+	/**
+	 * @return The IRI dictionary or null
+	 */
+	public IRIDictionary getIRIDictionary() {
+		return iriDictionary;
+	}
+
+	/**
+	 * @param absoluteURI
+	 * @return Component interned in the IRI dictionary, if there is one
+	 */
+	public Component createComponent(String absoluteURI) {
+		if (iriDictionary != null) {
+			return new Component(iriDictionary,
+					iriDictionary.getId(absoluteURI));
+		}
+		return new Component(absoluteURI);
+	}
+
+	/**
+	 * @param reference
+	 *            Relative reference or null for the base itself
+	 * @return Component resolved against the current base
+	 */
+	private Component createRelativeComponent(String reference) {
+		Component uri = reference != null ? new Component(base, reference)
+				: new Component(base);
+		if (iriDictionary != null) {
+			uri.setDictionary(iriDictionary);
+		}
+		return uri;
+	}
+
 	/**
 	 * @param inputURI
 	 * @return
 	 */
 	public Component expandURI(String inputURI) throws URISyntaxException {
-		return inputURI.isEmpty() == true ? new Component(base)
-				: new Component(base, new URI(inputURI));
+		if (inputURI.isEmpty() == true) {
+			return createRelativeComponent(null);
+		}
+		return IRIValidator.isAbsolute(inputURI) == true ? createComponent(inputURI)
+				: createRelativeComponent(inputURI);
+	}
+
+	/**
+	 * @return Failure code of the latest expansion that returned null
+	 */
+	public int getExpansionFailure() {
+		return expansionFailure;
 	}
 
 	/**
 	 * @param colon
 	 * @param CURIEorAbsURI
-	 * @return
-	 * @throws URISyntaxException
+	 * @return Component or null if expansion fails
 	 */
-	private Component expandCURIEorAbsURI(int colon, String CURIEorAbsURI)
-			throws URISyntaxException {
+	private Component expandCURIEorAbsURI(int colon, String CURIEorAbsURI) {
 		Component uri = null;
 		
-		// Perhaps a CURIE
-		String prefixURI = resolvePrefix(CURIEorAbsURI.substring(0, colon));
-		if (prefixURI != null) {
-			uri = new Component(base, new URI(prefixURI
-					+ CURIEorAbsURI.substring(colon + 1)));
-		} else {
-			// Prefix not registered, not a CURIE
-			if (colon == 1 && CURIEorAbsURI.charAt(0) == '_') {
-				// Blank node "_:*"
-				uri = new Component(
-						blankNodeHandler.mapBlankNode(CURIEorAbsURI));
+		try {
+			// Perhaps a CURIE
+			String prefixURI = resolvePrefix(CURIEorAbsURI.substring(0, colon));
+			if (prefixURI != null) {
+				String value = prefixURI + CURIEorAbsURI.substring(colon + 1);
+				uri = IRIValidator.isAbsolute(value) == true ? createComponent(value)
+						: createRelativeComponent(value);
 			} else {
-				// Perhaps an absolute uri
-				URI absoluteURI = new URI(CURIEorAbsURI);
-				if (absoluteURI.isAbsolute() == false) {
-					throw new URISyntaxException(CURIEorAbsURI,
-							"not an absolute uri");
+				// Prefix not registered, not a CURIE
+				if (colon == 1 && CURIEorAbsURI.charAt(0) == '_') {
+					// Blank node "_:*"
+					uri = createComponent(blankNodeHandler
+							.mapBlankNode(CURIEorAbsURI));
+				} else {
+					// Perhaps an absolute uri
+					if (IRIValidator.isAbsolute(CURIEorAbsURI) == false) {
+						expansionFailure = RDFaException.NOT_ABSOLUTE_URI;
+						return null;
+					}
+					uri = createComponent(CURIEorAbsURI);
 				}
-				uri = new Component(CURIEorAbsURI);
 			}
+		} catch (URISyntaxException exception) {
+			expansionFailure = RDFaException.INVALID_URI;
 		}
 		return uri;
 	}
 
 	/**
 	 * @param term
-	 * @return
-	 * @throws URISyntaxException
+	 * @return Component or null if expansion fails
 	 */
-	private Component expandTerm(String term) throws URISyntaxException {
+	private Component expandTerm(String term) {
 		Component uri = null;
 		String termURI = resolveTerm(term);
 		if (termURI != null) {
 			// Term URI
-			uri = new Component(termURI);
+			uri = createComponent(termURI);
 		} else if (XMLChar.isValidNCName(term) == true) {
 			// No prefix (if any)
 			if (getVocabulary() == null) {
-				throw new URISyntaxException(term,
-						"define no prefix vocabulary or add prefix to term");
+				expansionFailure = RDFaException.UNDEFINED_VOCABULARY;
+				return null;
 			}
-			uri = new Component(getVocabulary() + term);
+			uri = createComponent(getVocabulary() + term);
 		} else {
-			throw new URISyntaxException(term, "not a valid term");
+			expansionFailure = RDFaException.INVALID_TERM;
+			return null;
 		}
 		return uri;
 	}
@@ -535,18 +645,50 @@ public class ProcessingContext {
 	 */
 	public Component expandCURIEorURI(String CURIEorURI)
 			throws URISyntaxException {
+		Component uri = tryExpandCURIEorURI(CURIEorURI);
+		if (uri == null) {
+			throw new URISyntaxException(CURIEorURI,
+					RDFaException.getFailureMessage(expansionFailure));
+		}
+		return uri;
+	}
+
+	/**
+	 * @param CURIEorURI
+	 * @return Component or null if expansion fails, see
+	 *         getExpansionFailure()
+	 */
+	public Component tryExpandCURIEorURI(String CURIEorURI) {
+		String expanded = expansionCache.getCURIEorURI(CURIEorURI);
+		if (expanded != null) {
+			return createComponent(expanded);
+		}
+		String token = CURIEorURI;
 		if (CURIEorURI.startsWith("[") == true
 				&& CURIEorURI.endsWith("]") == true) {
 			// SafeCURIE
 			if (CURIEorURI.length() == 2) {
-				throw new URISyntaxException(CURIEorURI,
-						"not a valid safe curie");
+				expansionFailure = RDFaException.INVALID_SAFE_CURIE;
+				return null;
 			}
 			CURIEorURI = CURIEorURI.substring(1, CURIEorURI.length() - 1);
 		}
 		int colon = CURIEorURI.indexOf(':');
-		return colon != -1 ? expandCURIEorAbsURI(colon, CURIEorURI)
-				: expandURI(CURIEorURI);
+		Component uri = null;
+		if (colon != -1) {
+			uri = expandCURIEorAbsURI(colon, CURIEorURI);
+		} else {
+			try {
+				uri = expandURI(CURIEorURI);
+			} catch (URISyntaxException exception) {
+				expansionFailure = RDFaException.INVALID_URI;
+			}
+		}
+		if (uri != null && uri.isAbsolute() == true) {
+			// Does not depend on the base
+			expansionCache.putCURIEorURI(token, uri.getValue());
+		}
+		return uri;
 	}
 
 	/**
@@ -555,8 +697,33 @@ public class ProcessingContext {
 	 */
 	public Component expandTERMorCURIEorAbsURI(String TERMorCURIEorAbsURI)
 			throws URISyntaxException {
+		Component uri = tryExpandTERMorCURIEorAbsURI(TERMorCURIEorAbsURI);
+		if (uri == null) {
+			throw new URISyntaxException(TERMorCURIEorAbsURI,
+					RDFaException.getFailureMessage(expansionFailure));
+		}
+		return uri;
+	}
+
+	/**
+	 * @param TERMorCURIEorAbsURI
+	 * @return Component or null if expansion fails, see
+	 *         getExpansionFailure()
+	 */
+	public Component tryExpandTERMorCURIEorAbsURI(String TERMorCURIEorAbsURI) {
+		String expanded = expansionCache
+				.getTERMorCURIEorAbsURI(TERMorCURIEorAbsURI);
+		if (expanded != null) {
+			return createComponent(expanded);
+		}
 		int colon = TERMorCURIEorAbsURI.indexOf(':');
-		return colon != -1 ? expandCURIEorAbsURI(colon, TERMorCURIEorAbsURI)
-				: expandTerm(TERMorCURIEorAbsURI);
+		Component uri = colon != -1 ? expandCURIEorAbsURI(colon,
+				TERMorCURIEorAbsURI) : expandTerm(TERMorCURIEorAbsURI);
+		if (uri != null && uri.isAbsolute() == true) {
+			// Does not depend on the base
+			expansionCache.putTERMorCURIEorAbsURI(TERMorCURIEorAbsURI,
+					uri.getValue());
+		}
+		return uri;
 	}
 }
@@ -17,25 +17,28 @@ package fi.tikesos.rdfa.core.parser;
 
 import java.net.URISyntaxException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map.Entry;
 
 import fi.tikesos.rdfa.core.datatype.Attributes;
 import fi.tikesos.rdfa.core.datatype.IncompleteTriple;
 import fi.tikesos.rdfa.core.datatype.Component;
+import fi.tikesos.rdfa.core.datatype.IRIDictionary;
 import fi.tikesos.rdfa.core.datatype.Language;
 import fi.tikesos.rdfa.core.datatype.Literal;
 import fi.tikesos.rdfa.core.datatype.Location;
 import fi.tikesos.rdfa.core.datatype.PrefixMapping;
 import fi.tikesos.rdfa.core.datatype.RDFaAttributes;
+import fi.tikesos.rdfa.core.datatype.TokenList;
 import fi.tikesos.rdfa.core.exception.ErrorHandler;
 import fi.tikesos.rdfa.core.exception.NotCURIEorURIException;
 import fi.tikesos.rdfa.core.exception.NotTERMorCURIEorAbsURIException;
 import fi.tikesos.rdfa.core.exception.NotURIException;
 import fi.tikesos.rdfa.core.exception.ProfileLoadException;
+import fi.tikesos.rdfa.core.exception.StopParsingException;
 import fi.tikesos.rdfa.core.profile.Profile;
 import fi.tikesos.rdfa.core.profile.ProfileHandler;
+import fi.tikesos.rdfa.core.triple.RelativeTripleCachingSink;
 import fi.tikesos.rdfa.core.triple.TripleSink;
 import fi.tikesos.rdfa.core.literal.LiteralCollector;
 
@@ -51,6 +54,8 @@ public class RDFaParser {
 	public static final int UNKNOWN_XML = 0;
 	public static final int XHTML_RDFA = 1;
 	public static final int XML_RDFA = 2;
+	public static final int PARSING_COMPLETED = 0;
+	public static final int PARSING_STOPPED = 1;
 	public static final String XHTML_PROFILE = "http://www.w3.org/1999/xhtml/vocab";
 	public static final String XHTML_NS = "http://www.w3.org/1999/xhtml";
 	public static final String XML_NS = "http://www.w3.org/XML/1998/namespace";
@@ -60,11 +65,17 @@ public class RDFaParser {
 	private int format;
 	private int depth;
 	private boolean lookForBase;
-	private TripleSink tripleSink;
+	private RelativeTripleCachingSink tripleSink;
 	private LiteralCollector literalCollector;
 	private ErrorHandler errorHandler;
 	private ProcessingContext context;
 	private ProfileHandler profileHandler;
+	private RDFaAttributes[] attributesPool;
+	private ProcessingContext[] contextPool;
+	// Elements at depth passed through without a context of their own
+	private boolean[] passThrough;
+	private ExtractionFilter extractionFilter;
+	private int status = PARSING_COMPLETED;
 
 	/**
 	 * Class constructor
@@ -82,13 +93,222 @@ public class RDFaParser {
 		// Create default evaluation context
 		this.context = new ProcessingContext(base);
 		this.context.setNewSubject(new Component(base));
-		this.tripleSink = tripleSink;
+		// Hold back relative triples until base is known
+		this.tripleSink = new RelativeTripleCachingSink(tripleSink);
 		this.profileHandler = profileHandler;
 		this.errorHandler = errorHandler;
 		this.literalCollector = new LiteralCollector();
 		this.format = format;
 		this.depth = 0;
 		this.lookForBase = (format == XHTML_RDFA ? true : false);
+		this.attributesPool = new RDFaAttributes[16];
+		this.contextPool = new ProcessingContext[16];
+		this.contextPool[0] = this.context;
+		this.passThrough = new boolean[16];
+	}
+
+	/**
+	 * Sets the IRI dictionary expanded IRIs and blank nodes are interned in.
+	 * Must be set before parsing begins.
+	 * 
+	 * @param iriDictionary
+	 */
+	public void setIRIDictionary(IRIDictionary iriDictionary) {
+		context.setIRIDictionary(iriDictionary);
+		context.getNewSubject().setDictionary(iriDictionary);
+	}
+
+	/**
+	 * @return The IRI dictionary or null
+	 */
+	public IRIDictionary getIRIDictionary() {
+		return context.getIRIDictionary();
+	}
+
+	/**
+	 * Sets the filter deciding which predicates and types generate triples.
+	 * Must be set before parsing begins.
+	 * 
+	 * @param extractionFilter
+	 *            Filter or null to generate all triples
+	 */
+	public void setExtractionFilter(ExtractionFilter extractionFilter) {
+		this.extractionFilter = extractionFilter;
+	}
+
+	/**
+	 * @return The extraction filter or null
+	 */
+	public ExtractionFilter getExtractionFilter() {
+		return extractionFilter;
+	}
+
+	/**
+	 * @param predicate
+	 * @return True if triples with predicate pass the extraction filter.
+	 *         Relative predicates are not final yet and always pass.
+	 */
+	private boolean isAccepted(Component predicate) {
+		return extractionFilter == null || predicate.isAbsolute() == false
+				|| extractionFilter.acceptPredicate(predicate.getValue());
+	}
+
+	/**
+	 * @param component
+	 * @param value
+	 * @return True if component is absolute and has the value. Relative
+	 *         components are not resolved, since base may still change
+	 *         while relative triples are cached.
+	 */
+	private static boolean hasAbsoluteValue(Component component, String value) {
+		return component.isAbsolute() == true
+				&& component.getValue().equals(value) == true;
+	}
+
+	/**
+	 * @return True if some @property predicate of current element passes
+	 *         the extraction filter. Invalid predicates pass, so that they
+	 *         are reported as without a filter.
+	 */
+	private boolean isAnyPropertyAccepted() {
+		TokenList property = context.getProperty();
+		for (int i = 0; i < property.size(); i++) {
+			Component predicateURI = context
+					.tryExpandTERMorCURIEorAbsURI(property.get(i));
+			if (predicateURI == null || isAccepted(predicateURI) == true) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param absoluteURI
+	 * @param location
+	 * @return Component interned in the IRI dictionary, if there is one
+	 */
+	private Component createComponent(String absoluteURI, Location location) {
+		Component component = context.createComponent(absoluteURI);
+		component.setLocation(location);
+		return component;
+	}
+
+	/**
+	 * Reusable processing context for the element at given depth,
+	 * initialized as a child of the current context.
+	 * 
+	 * @param depth
+	 * @return ProcessingContext
+	 */
+	private ProcessingContext enterContext(int depth) {
+		if (depth >= contextPool.length) {
+			// Passed through elements skip the pool, so depth may jump
+			ProcessingContext[] grown = new ProcessingContext[Math.max(
+					contextPool.length * 2, depth + 1)];
+			System.arraycopy(contextPool, 0, grown, 0, contextPool.length);
+			contextPool = grown;
+		}
+		ProcessingContext childContext = contextPool[depth];
+		if (childContext == null) {
+			childContext = new ProcessingContext(context);
+			contextPool[depth] = childContext;
+		} else {
+			childContext.reset(context);
+		}
+		return childContext;
+	}
+
+	/**
+	 * @return True if a literal is being collected for the current element
+	 *         or one of its ancestors
+	 */
+	boolean isCollectingLiteral() {
+		return literalCollector.isCollecting();
+	}
+
+	/**
+	 * Check if element can pass the current context through to its children
+	 * unchanged. An element without RDFa attributes would otherwise get a
+	 * context with skip element set and parent object as new subject, which
+	 * its children would see exactly as they see the current context, as
+	 * long as the current context is not skipped and has a parent object to
+	 * give. Host language specific elements near the root and elements inside
+	 * XML literals are always processed.
+	 * 
+	 * @param attributes
+	 * @return True if element can be passed through
+	 */
+	private boolean canPassThrough(Attributes attributes) {
+		return depth > 3
+				&& context.isProfileFailed() == false
+				&& context.isSkipElement() == false
+				&& (context.getCurrentObjectResource() != null
+						|| context.getNewSubject() != null || context
+						.getParentSubject() != null)
+				&& literalCollector.isCollectingXML() == false
+				&& RDFaAttributes.hasRDFaAttributes(attributes) == false;
+	}
+
+	/**
+	 * Reusable attribute holder for the element at given depth. Holder is
+	 * valid until next element at the same depth begins.
+	 * 
+	 * @param depth
+	 * @return RDFaAttributes
+	 */
+	private RDFaAttributes getAttributes(int depth) {
+		if (depth >= attributesPool.length) {
+			// Passed through elements skip the pool, so depth may jump
+			RDFaAttributes[] grown = new RDFaAttributes[Math.max(
+					attributesPool.length * 2, depth + 1)];
+			System.arraycopy(attributesPool, 0, grown, 0,
+					attributesPool.length);
+			attributesPool = grown;
+		}
+		RDFaAttributes rdfaAttributes = attributesPool[depth];
+		if (rdfaAttributes == null) {
+			rdfaAttributes = new RDFaAttributes();
+			attributesPool[depth] = rdfaAttributes;
+		}
+		return rdfaAttributes;
+	}
+
+	/**
+	 * Signals the triple sink that document begins, if it is a
+	 * DocumentTripleSink
+	 */
+	public void beginRDFaDocument() {
+		status = PARSING_COMPLETED;
+		tripleSink.startDocument();
+	}
+
+	/**
+	 * Signals the triple sink that document has ended, if it is a
+	 * DocumentTripleSink. Triples still held back are passed on first.
+	 */
+	public void endRDFaDocument() {
+		try {
+			tripleSink.endDocument();
+		} catch (StopParsingException exception) {
+			status = PARSING_STOPPED;
+		}
+	}
+
+	/**
+	 * Ends the document early after StopParsingException. Remaining
+	 * elements are not processed.
+	 */
+	public void stopRDFaDocument() {
+		status = PARSING_STOPPED;
+		endRDFaDocument();
+	}
+
+	/**
+	 * @return PARSING_COMPLETED or PARSING_STOPPED if a triple sink or
+	 *         extraction filter stopped parsing with StopParsingException
+	 */
+	public int getStatus() {
+		return status;
 	}
 
 	/**
@@ -103,13 +323,26 @@ public class RDFaParser {
 			Attributes attributes, Location location) {
 		depth++;
 
+		if (depth == passThrough.length) {
+			boolean[] grown = new boolean[passThrough.length * 2];
+			System.arraycopy(passThrough, 0, grown, 0, depth);
+			passThrough = grown;
+		}
+		passThrough[depth] = canPassThrough(attributes);
+		if (passThrough[depth] == true) {
+			// Fast path, keep current context
+			literalCollector.collectPlainStartElement();
+			return;
+		}
+
 		// Process attributes
-		RDFaAttributes rdfaAttributes = new RDFaAttributes(attributes);
+		RDFaAttributes rdfaAttributes = getAttributes(depth);
+		rdfaAttributes.reset(attributes);
 
 		literalCollector.collectStartElement(uri, localName, qName,
 				rdfaAttributes, location);
 		// Create new evaluation context
-		context = new ProcessingContext(context);
+		context = enterContext(depth);
 
 		if (depth == 1 && format == UNKNOWN_XML) {
 			if (XHTML_NS.equals(rdfaAttributes.getDefaultXmlns()) == true) {
@@ -179,7 +412,10 @@ public class RDFaParser {
 
 		if (rdfaAttributes.getProfile() != null) {
 			// Add local profiles
-			profilesToLoad.addAll(Arrays.asList(rdfaAttributes.getProfile()));
+			TokenList profile = rdfaAttributes.getProfile();
+			for (int i = 0; i < profile.size(); i++) {
+				profilesToLoad.add(profile.get(i));
+			}
 		}
 
 		if (profilesToLoad.isEmpty() == false && profileHandler != null) {
@@ -237,17 +473,18 @@ public class RDFaParser {
 
 			// Get datatype
 			if (rdfaAttributes.getDatatype() != null) {
-				try {
-					Component datatypeURI = context
-							.expandTERMorCURIEorAbsURI(rdfaAttributes
-									.getDatatype());
+				Component datatypeURI = context
+						.tryExpandTERMorCURIEorAbsURI(rdfaAttributes
+								.getDatatype());
+				if (datatypeURI != null) {
 					datatypeURI.setLocation(rdfaAttributes
 							.getDatatypeLocation());
 					context.setDatatype(datatypeURI);
-				} catch (Exception exception) {
+				} else {
 					errorHandler.warning(new NotTERMorCURIEorAbsURIException(
 							"datatype", rdfaAttributes.getDatatypeLocation(),
-							exception));
+							context.getExpansionFailure(), rdfaAttributes
+									.getDatatype()));
 				}
 			}
 
@@ -263,15 +500,16 @@ public class RDFaParser {
 				// subject
 				if (rdfaAttributes.getAbout() != null) {
 					// by using the URI from @about, if present
-					try {
-						Component aboutURI = context
-								.expandCURIEorURI(rdfaAttributes.getAbout());
+					Component aboutURI = context
+							.tryExpandCURIEorURI(rdfaAttributes.getAbout());
+					if (aboutURI != null) {
 						aboutURI.setLocation(rdfaAttributes.getAboutLocation());
 						context.setNewSubject(aboutURI);
-					} catch (Exception exception) {
+					} else {
 						errorHandler.warning(new NotCURIEorURIException(
 								"about", rdfaAttributes.getAboutLocation(),
-								exception));
+								context.getExpansionFailure(), rdfaAttributes
+										.getAbout()));
 					}
 				} else if (rdfaAttributes.getSrc() != null) {
 					// otherwise, by using the URI from @src, if present
@@ -287,16 +525,18 @@ public class RDFaParser {
 				} else if (rdfaAttributes.getResource() != null) {
 					// otherwise, by using the URI from @resource, if
 					// present
-					try {
-						Component resourceURI = context
-								.expandCURIEorURI(rdfaAttributes.getResource());
+					Component resourceURI = context
+							.tryExpandCURIEorURI(rdfaAttributes.getResource());
+					if (resourceURI != null) {
 						resourceURI.setLocation(rdfaAttributes
 								.getResourceLocation());
 						context.setNewSubject(resourceURI);
-					} catch (Exception exception) {
+					} else {
 						errorHandler.warning(new NotCURIEorURIException(
 								"resource", rdfaAttributes
-										.getResourceLocation(), exception));
+										.getResourceLocation(), context
+										.getExpansionFailure(), rdfaAttributes
+										.getResource()));
 					}
 				} else if (rdfaAttributes.getHref() != null) {
 					// otherwise, by using the URI from @href, if present
@@ -333,7 +573,7 @@ public class RDFaParser {
 					if (rdfaAttributes.getTypeof() != null) {
 						// if @typeof is present, then new subject is set to
 						// be a newly created bnode
-						context.setNewSubject(new Component(context
+						context.setNewSubject(createComponent(context
 								.generateBlankNode(), location));
 					} else {
 						// otherwise, if parent object is present, new
@@ -359,15 +599,16 @@ public class RDFaParser {
 				// and a value for current object resource:
 				if (rdfaAttributes.getAbout() != null) {
 					// by using the URI from @about, if present
-					try {
-						Component aboutURI = context
-								.expandCURIEorURI(rdfaAttributes.getAbout());
+					Component aboutURI = context
+							.tryExpandCURIEorURI(rdfaAttributes.getAbout());
+					if (aboutURI != null) {
 						aboutURI.setLocation(rdfaAttributes.getAboutLocation());
 						context.setNewSubject(aboutURI);
-					} catch (Exception exception) {
+					} else {
 						errorHandler.warning(new NotCURIEorURIException(
 								"about", rdfaAttributes.getAboutLocation(),
-								exception));
+								context.getExpansionFailure(), rdfaAttributes
+										.getAbout()));
 					}
 				} else if (rdfaAttributes.getSrc() != null) {
 					// otherwise, by using the URI from @src, if present
@@ -402,7 +643,7 @@ public class RDFaParser {
 					if (rdfaAttributes.getTypeof() != null) {
 						// if @typeof is present, then new subject is set to
 						// be a newly created bnode;
-						context.setNewSubject(new Component(context
+						context.setNewSubject(createComponent(context
 								.generateBlankNode(), location));
 					} else if (context.getParentObject() != null) {
 						// otherwise, if parent object is present, new
@@ -416,16 +657,18 @@ public class RDFaParser {
 				// obtained from the first match from the following rules
 				if (rdfaAttributes.getResource() != null) {
 					// by using the URI from @resource, if present
-					try {
-						Component resourceURI = context
-								.expandCURIEorURI(rdfaAttributes.getResource());
+					Component resourceURI = context
+							.tryExpandCURIEorURI(rdfaAttributes.getResource());
+					if (resourceURI != null) {
 						resourceURI.setLocation(rdfaAttributes
 								.getResourceLocation());
 						context.setCurrentObjectResource(resourceURI);
-					} catch (Exception exception) {
+					} else {
 						errorHandler.warning(new NotCURIEorURIException(
 								"resource", rdfaAttributes
-										.getResourceLocation(), exception));
+										.getResourceLocation(), context
+										.getExpansionFailure(), rdfaAttributes
+										.getResource()));
 					}
 				} else if (rdfaAttributes.getHref() != null) {
 					// otherwise, by using the URI from @href, if present
@@ -447,25 +690,33 @@ public class RDFaParser {
 				// If in any of the previous steps a new subject
 				// was set to a non-null value, it is now used to
 				// provide a subject for type values
-				for (String type : rdfaAttributes.getTypeof()) {
+				TokenList typeof = rdfaAttributes.getTypeof();
+				for (int i = 0; i < typeof.size(); i++) {
+					String type = typeof.get(i);
 					// One or more 'types' for the new subject can
 					// be set by using @typeof. If present, the
 					// attribute must contain one or more URIs,
 					// obtained according to the section on URI
 					// and CURIE Processing, each of which is used
 					// to generate a triple
-					try {
-						Component typeURI = context
-								.expandTERMorCURIEorAbsURI(type);
+					Component typeURI = context
+							.tryExpandTERMorCURIEorAbsURI(type);
+					if (typeURI != null) {
 						typeURI.setLocation(rdfaAttributes.getTypeofLocation());
-						tripleSink.generateTriple(context.getNewSubject(),
-								new Component(RDF_NS + "type", location),
-								typeURI);
-					} catch (URISyntaxException exception) {
+						if (extractionFilter == null
+								|| typeURI.isAbsolute() == false
+								|| extractionFilter.acceptType(typeURI
+										.getValue()) == true) {
+							tripleSink.generateTriple(context.getNewSubject(),
+									createComponent(RDF_NS + "type", location),
+									typeURI);
+						}
+					} else {
 						errorHandler
 								.warning(new NotTERMorCURIEorAbsURIException(
 										"typeof", rdfaAttributes
-												.getTypeofLocation(), exception));
+												.getTypeofLocation(), context
+												.getExpansionFailure(), type));
 					}
 				}
 			}
@@ -475,51 +726,57 @@ public class RDFaParser {
 				// If in any of the previous steps a current object
 				// resource was set to a non-null value, it is now
 				// used to generate triples
-				String[] rel = rdfaAttributes.getRel();
-				if (rel != null && rel.length > 0 && rel[0].isEmpty() == false) {
+				TokenList rel = rdfaAttributes.getRel();
+				if (rel != null && rel.isEmpty() == false) {
 					// if present, @rel may contain one or more
 					// URIs, obtained according to the section on
 					// CURIE and URI Processing each of which is
 					// used to generate a triple
-					for (String predicate : rel) {
-						try {
-							Component predicateURI = context
-									.expandTERMorCURIEorAbsURI(predicate);
+					for (int i = 0; i < rel.size(); i++) {
+						String predicate = rel.get(i);
+						Component predicateURI = context
+								.tryExpandTERMorCURIEorAbsURI(predicate);
+						if (predicateURI != null) {
 							predicateURI.setLocation(rdfaAttributes
 									.getRelLocation());
-							tripleSink.generateTriple(context.getNewSubject(),
-									predicateURI,
-									context.getCurrentObjectResource());
-						} catch (URISyntaxException exception) {
+							if (isAccepted(predicateURI) == true) {
+								tripleSink.generateTriple(
+										context.getNewSubject(), predicateURI,
+										context.getCurrentObjectResource());
+							}
+						} else {
 							errorHandler
 									.warning(new NotTERMorCURIEorAbsURIException(
 											"rel", rdfaAttributes
 													.getRelLocation(),
-											exception));
+											context.getExpansionFailure(), predicate));
 						}
 					}
 				}
-				String[] rev = rdfaAttributes.getRev();
-				if (rev != null && rev.length > 0 && rev[0].isEmpty() == false) {
+				TokenList rev = rdfaAttributes.getRev();
+				if (rev != null && rev.isEmpty() == false) {
 					// if present, @rev may contain one or more
 					// URIs, obtained according to the section on
 					// CURIE and URI Processing each of which is
 					// used to generate a triple
-					for (String predicate : rev) {
-						try {
-							Component predicateURI = context
-									.expandTERMorCURIEorAbsURI(predicate);
+					for (int i = 0; i < rev.size(); i++) {
+						String predicate = rev.get(i);
+						Component predicateURI = context
+								.tryExpandTERMorCURIEorAbsURI(predicate);
+						if (predicateURI != null) {
 							predicateURI.setLocation(rdfaAttributes
 									.getRevLocation());
-							tripleSink.generateTriple(
-									context.getCurrentObjectResource(),
-									predicateURI, context.getNewSubject());
-						} catch (URISyntaxException exception) {
+							if (isAccepted(predicateURI) == true) {
+								tripleSink.generateTriple(
+										context.getCurrentObjectResource(),
+										predicateURI, context.getNewSubject());
+							}
+						} else {
 							errorHandler
 									.warning(new NotTERMorCURIEorAbsURIException(
 											"rev", rdfaAttributes
 													.getRevLocation(),
-											exception));
+											context.getExpansionFailure(), predicate));
 						}
 					}
 				}
@@ -532,69 +789,76 @@ public class RDFaParser {
 				// discovery of a subject that can be used as the
 				// object. Also, current object resource should be set
 				// to a newly created bnode
-				String[] rel = rdfaAttributes.getRel();
+				TokenList rel = rdfaAttributes.getRel();
 				List<IncompleteTriple> incompleteTriples = new ArrayList<IncompleteTriple>();
-				if (rel != null && rel.length > 0 && rel[0].isEmpty() == false) {
+				if (rel != null && rel.isEmpty() == false) {
 					// If present, @rel must contain one or more URIs,
 					// obtained according to the section on CURIE and URI
 					// Processing each of which is added to the localContext
 					// list
 					// of incomplete triples
-					for (String predicate : rel) {
-						try {
-							Component predicateURI = context
-									.expandTERMorCURIEorAbsURI(predicate);
+					for (int i = 0; i < rel.size(); i++) {
+						String predicate = rel.get(i);
+						Component predicateURI = context
+								.tryExpandTERMorCURIEorAbsURI(predicate);
+						if (predicateURI != null) {
 							predicateURI.setLocation(rdfaAttributes
 									.getRelLocation());
 							incompleteTriples.add(new IncompleteTriple(
 									predicateURI, false));
-						} catch (URISyntaxException exception) {
+						} else {
 							errorHandler
 									.warning(new NotTERMorCURIEorAbsURIException(
 											"rel", rdfaAttributes
 													.getRelLocation(),
-											exception));
+											context.getExpansionFailure(), predicate));
 						}
 					}
 				}
-				String[] rev = rdfaAttributes.getRev();
-				if (rev != null && rev.length > 0 && rev[0].isEmpty() == false) {
+				TokenList rev = rdfaAttributes.getRev();
+				if (rev != null && rev.isEmpty() == false) {
 					// If present, @rel must contain one or more URIs,
 					// obtained according to the section on CURIE and URI
 					// Processing each of which is added to the localContext
 					// list
 					// of incomplete triples
-					for (String predicate : rev) {
-						try {
-							Component predicateURI = context
-									.expandTERMorCURIEorAbsURI(predicate);
+					for (int i = 0; i < rev.size(); i++) {
+						String predicate = rev.get(i);
+						Component predicateURI = context
+								.tryExpandTERMorCURIEorAbsURI(predicate);
+						if (predicateURI != null) {
 							predicateURI.setLocation(rdfaAttributes
 									.getRevLocation());
 							incompleteTriples.add(new IncompleteTriple(
 									predicateURI, true));
-						} catch (URISyntaxException exception) {
+						} else {
 							errorHandler
 									.warning(new NotTERMorCURIEorAbsURIException(
 											"rev", rdfaAttributes
 													.getRevLocation(),
-											exception));
+											context.getExpansionFailure(), predicate));
 						}
 					}
 				}
 				if (incompleteTriples.isEmpty() == false) {
 					context.setLocalIncompleteTriples(incompleteTriples);
 				}
-				context.setCurrentObjectResource(new Component(context
+				context.setCurrentObjectResource(createComponent(context
 						.generateBlankNode(), location));
 			}
 
+			if (context.getProperty() != null && extractionFilter != null
+					&& isAnyPropertyAccepted() == false) {
+				// No literal triple would survive, skip collecting
+				context.setProperty(null);
+			}
 			if (context.getProperty() != null) {
 				// determinate literal collecting mode
 				if (context.getContent() == null) {
 					// @content is not present
 					if (context.getDatatype() != null
-							&& context.getDatatype().getValue()
-									.equals(RDF_XMLLITERAL)) {
+							&& hasAbsoluteValue(context.getDatatype(),
+									RDF_XMLLITERAL) == true) {
 						literalCollector.startCollectingXML();
 					} else {
 						literalCollector.startCollecting();
@@ -611,6 +875,14 @@ public class RDFaParser {
 	 *      java.lang.String, java.lang.String)
 	 */
 	public void endRDFaElement(String uri, String localName, String qName, Location location) {
+		if (passThrough[depth] == true) {
+			// Element was passed through, context is unchanged
+			literalCollector.collectCloseElement(uri, localName, qName,
+					location);
+			depth--;
+			return;
+		}
+
 		// 11.
 		if (context.isProfileFailed() == false) {
 			if (context.getProperty() != null) {
@@ -619,9 +891,9 @@ public class RDFaParser {
 				Language language = context.getLanguage();
 
 				if (context.getDatatype() != null
-						&& context.getDatatype().getValue().isEmpty() == false
-						&& context.getDatatype().getValue()
-								.equals(RDF_XMLLITERAL) == false) {
+						&& hasAbsoluteValue(context.getDatatype(), "") == false
+						&& hasAbsoluteValue(context.getDatatype(),
+								RDF_XMLLITERAL) == false) {
 					// as a typed literal if @datatype is present, does not
 					// have an empty value according to the section on
 					// CURIE and URI Processing, and is not set to
@@ -639,8 +911,8 @@ public class RDFaParser {
 					}
 					datatype = context.getDatatype();
 				} else if (context.getDatatype() != null
-						&& context.getDatatype().getValue()
-								.equals(RDF_XMLLITERAL) == true) {
+						&& hasAbsoluteValue(context.getDatatype(),
+								RDF_XMLLITERAL) == true) {
 					// as an XML literal if @datatype is present and is set
 					// to XMLLiteral in the vocabulary
 					// http://www.w3.org/1999/02/22-rdf-syntax-ns#
@@ -664,21 +936,25 @@ public class RDFaParser {
 				if (literal != null) {
 					// The current object literal is then used with
 					// each predicate to generate a triple
-					for (String predicate : context.getProperty()) {
-						try {
-							Component predicateURI = context
-									.expandTERMorCURIEorAbsURI(predicate);
+					TokenList property = context.getProperty();
+					for (int i = 0; i < property.size(); i++) {
+						String predicate = property.get(i);
+						Component predicateURI = context
+								.tryExpandTERMorCURIEorAbsURI(predicate);
+						if (predicateURI != null) {
 							predicateURI.setLocation(context
 									.getPropertyLocation());
-							tripleSink.generateTripleLiteral(
-									context.getNewSubject(), predicateURI,
-									literal, language, datatype);
-						} catch (URISyntaxException exception) {
+							if (isAccepted(predicateURI) == true) {
+								tripleSink.generateTripleLiteral(
+										context.getNewSubject(), predicateURI,
+										literal, language, datatype);
+							}
+						} else {
 							errorHandler
 									.warning(new NotTERMorCURIEorAbsURIException(
 											"property", context
 													.getPropertyLocation(),
-											exception));
+											context.getExpansionFailure(), predicate));
 						}
 					}
 				}
@@ -693,6 +969,9 @@ public class RDFaParser {
 				if (context.getEvaluationIncompleteTriples() != null) {
 					for (IncompleteTriple incompleteTriple : context
 							.getEvaluationIncompleteTriples()) {
+						if (isAccepted(incompleteTriple.getComponent()) == false) {
+							continue;
+						}
 						if (incompleteTriple.isReverse() == false) {
 							// Forward
 							tripleSink.generateTriple(
@@ -708,16 +987,16 @@ public class RDFaParser {
 					}
 				}
 			}
+		}
 
-			// XHTML+RDFa host language
-			if (format == XHTML_RDFA) {
-				if (lookForBase == true && depth == 2
-						&& "head".equals(localName) == true
-						&& XHTML_NS.equals(uri) == true) {
-					// Start looking for base
-					lookForBase = false;
-					tripleSink.stopRelativeTripleCaching();
-				}
+		// XHTML+RDFa host language
+		if (format == XHTML_RDFA) {
+			if (lookForBase == true && depth == 2
+					&& "head".equals(localName) == true
+					&& XHTML_NS.equals(uri) == true) {
+				// Stop looking for base, also when profile loading has failed
+				lookForBase = false;
+				tripleSink.stopRelativeTripleCaching();
 			}
 		}
 
@@ -21,7 +21,10 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 
 import fi.tikesos.rdfa.core.datatype.Attributes;
+import fi.tikesos.rdfa.core.datatype.IRIDictionary;
 import fi.tikesos.rdfa.core.exception.ErrorHandler;
+import fi.tikesos.rdfa.core.exception.StopParsingException;
+import fi.tikesos.rdfa.core.parser.ExtractionFilter;
 import fi.tikesos.rdfa.core.parser.RDFaParser;
 import fi.tikesos.rdfa.core.profile.ProfileHandler;
 import fi.tikesos.rdfa.core.triple.TripleSink;
@@ -40,18 +43,78 @@ public class DOMRDFaParser {
 	 * @param profileHandler
 	 * @param errorHandler
 	 * @param format
+	 * @return RDFaParser.PARSING_COMPLETED or RDFaParser.PARSING_STOPPED
 	 * @throws URISyntaxException
 	 */
-	public static void parse(Document document, String base,
+	public static int parse(Document document, String base,
 			TripleSink tripleSink, ProfileHandler profileHandler,
 			ErrorHandler errorHandler, int format) throws URISyntaxException {
+		return parse(document, base, tripleSink, profileHandler, errorHandler, format,
+				null);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param document
+	 * @param base
+	 * @param tripleSink
+	 * @param profileHandler
+	 * @param errorHandler
+	 * @param format
+	 * @param iriDictionary
+	 *            IRI dictionary or null
+	 * @return RDFaParser.PARSING_COMPLETED or RDFaParser.PARSING_STOPPED
+	 * @throws URISyntaxException
+	 */
+	public static int parse(Document document, String base,
+			TripleSink tripleSink, ProfileHandler profileHandler,
+			ErrorHandler errorHandler, int format, IRIDictionary iriDictionary)
+			throws URISyntaxException {
+		return parse(document, base, tripleSink, profileHandler, errorHandler, format,
+				iriDictionary, null);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param document
+	 * @param base
+	 * @param tripleSink
+	 * @param profileHandler
+	 * @param errorHandler
+	 * @param format
+	 * @param iriDictionary
+	 *            IRI dictionary or null
+	 * @param extractionFilter
+	 *            Extraction filter or null
+	 * @return RDFaParser.PARSING_COMPLETED or RDFaParser.PARSING_STOPPED
+	 * @throws URISyntaxException
+	 */
+	public static int parse(Document document, String base,
+			TripleSink tripleSink, ProfileHandler profileHandler,
+			ErrorHandler errorHandler, int format, IRIDictionary iriDictionary,
+			ExtractionFilter extractionFilter) throws URISyntaxException {
 		// Create RDFaParser
 		RDFaParser parser = new RDFaParser(base, tripleSink, profileHandler,
 				errorHandler, format);
-		if (document.getDocumentElement() != null) {
-			// Parse children
-			process(parser, document.getDocumentElement());
+		if (iriDictionary != null) {
+			parser.setIRIDictionary(iriDictionary);
+		}
+		parser.setExtractionFilter(extractionFilter);
+		parser.beginRDFaDocument();
+		try {
+			if (document.getDocumentElement() != null) {
+				// Parse children
+				process(parser, document.getDocumentElement());
+			}
+		} catch (StopParsingException exception) {
+			// Stop traversal
+			parser.stopRDFaDocument();
+			return parser.getStatus();
 		}
+		parser.endRDFaDocument();
+		return parser.getStatus();
 	}
 
 	/**
@@ -35,6 +35,17 @@ public class SAXAttributes implements fi.tikesos.rdfa.core.datatype.Attributes {
 		this.location = location;
 	}
 
+	/**
+	 * Wrap attributes of the next element
+	 * 
+	 * @param attributes
+	 * @param location
+	 */
+	public void reset(Attributes attributes, SAXLocation location) {
+		this.attributes = attributes;
+		this.location = location;
+	}
+
 	/**
 	 * @see fi.tikesos.rdfa.core.datatype.Attributes#getCount()
 	 */
@@ -23,11 +23,17 @@ import org.xml.sax.Locator;
 import org.xml.sax.SAXException;
 
 import fi.tikesos.rdfa.core.exception.ErrorHandler;
+import fi.tikesos.rdfa.core.exception.RDFaException;
+import fi.tikesos.rdfa.core.exception.StopParsingException;
 import fi.tikesos.rdfa.core.parser.RDFaParser;
 import fi.tikesos.rdfa.core.profile.ProfileHandler;
 import fi.tikesos.rdfa.core.triple.TripleSink;
 
 /**
+ * SAX ContentHandler for RDFa. When a triple sink or extraction filter
+ * stops parsing, the document is ended and a SAXException is thrown to
+ * abort the XMLReader. getStatus() then returns PARSING_STOPPED.
+ * 
  * @author ssakorho
  * 
  */
@@ -35,6 +41,9 @@ public class SAXRDFaParser extends RDFaParser implements ContentHandler {
 	private Locator locator;
 	private long line;
 	private long column;
+	private LazyLocationErrorHandler errorHandler;
+	private boolean lazyLocations = false;
+	private SAXAttributes saxAttributes = new SAXAttributes(null, null);
 
 	/**
 	 * Constructor
@@ -49,17 +58,47 @@ public class SAXRDFaParser extends RDFaParser implements ContentHandler {
 	public SAXRDFaParser(String base, TripleSink tripleSink,
 			ProfileHandler profileHandler, ErrorHandler errorHandler, int format)
 			throws URISyntaxException {
+		this(base, tripleSink, profileHandler, new LazyLocationErrorHandler(
+				errorHandler), format);
+	}
+
+	private SAXRDFaParser(String base, TripleSink tripleSink,
+			ProfileHandler profileHandler,
+			LazyLocationErrorHandler errorHandler, int format)
+			throws URISyntaxException {
 		super(base, tripleSink, profileHandler, errorHandler, format);
+		this.errorHandler = errorHandler;
 		line = 0;
 		column = 0;
 	}
 
+	/**
+	 * In lazy mode no location is captured for elements, attributes and
+	 * text, so components and literals have no location. Reported
+	 * RDFaExceptions get the position of the event being processed.
+	 * 
+	 * @param lazyLocations
+	 *            True for lazy mode
+	 */
+	public void setLazyLocations(boolean lazyLocations) {
+		this.lazyLocations = lazyLocations;
+		this.errorHandler.lazyLocations = lazyLocations;
+	}
+
+	/**
+	 * @return True if locations are captured lazily
+	 */
+	public boolean isLazyLocations() {
+		return lazyLocations;
+	}
+
 	/**
 	 * @see org.xml.sax.ContentHandler#setDocumentLocator(org.xml.sax.Locator)
 	 */
 	@Override
 	public void setDocumentLocator(Locator locator) {
 		this.locator = locator;
+		this.errorHandler.locator = locator;
 	}
 
 	/**
@@ -69,6 +108,7 @@ public class SAXRDFaParser extends RDFaParser implements ContentHandler {
 	public void startDocument() throws SAXException {
 		// Start document
 		saveLocation();
+		beginRDFaDocument();
 	}
 
 	/**
@@ -78,6 +118,18 @@ public class SAXRDFaParser extends RDFaParser implements ContentHandler {
 	public void endDocument() throws SAXException {
 		// End document
 		saveLocation();
+		endRDFaDocument();
+	}
+
+	/**
+	 * End document after StopParsingException
+	 * 
+	 * @param exception
+	 * @return SAXException aborting XMLReader
+	 */
+	private SAXException stop(StopParsingException exception) {
+		stopRDFaDocument();
+		return new SAXException(exception.getMessage(), exception);
 	}
 
 	/**
@@ -105,9 +157,13 @@ public class SAXRDFaParser extends RDFaParser implements ContentHandler {
 	@Override
 	public void startElement(String uri, String localName, String qName,
 			Attributes atts) throws SAXException {
-		SAXLocation location = new SAXLocation(line, column);
-		beginRDFaElement(uri, localName, qName, new SAXAttributes(atts,
-				location), location);
+		SAXLocation location = getLocation();
+		saxAttributes.reset(atts, location);
+		try {
+			beginRDFaElement(uri, localName, qName, saxAttributes, location);
+		} catch (StopParsingException exception) {
+			throw stop(exception);
+		}
 		saveLocation();
 	}
 
@@ -118,7 +174,11 @@ public class SAXRDFaParser extends RDFaParser implements ContentHandler {
 	@Override
 	public void endElement(String uri, String localName, String qName)
 			throws SAXException {
-		endRDFaElement(uri, localName, qName, new SAXLocation(line, column));
+		try {
+			endRDFaElement(uri, localName, qName, getLocation());
+		} catch (StopParsingException exception) {
+			throw stop(exception);
+		}
 		saveLocation();
 	}
 
@@ -129,7 +189,11 @@ public class SAXRDFaParser extends RDFaParser implements ContentHandler {
 	public void characters(char[] ch, int start, int length)
 			throws SAXException {
 		// Capture text content for plain literal
-		writeCharacters(ch, start, length, new SAXLocation(line, column));
+		try {
+			writeCharacters(ch, start, length, getLocation());
+		} catch (StopParsingException exception) {
+			throw stop(exception);
+		}
 		saveLocation();
 	}
 
@@ -167,8 +231,49 @@ public class SAXRDFaParser extends RDFaParser implements ContentHandler {
 	 * Save current location
 	 */
 	public void saveLocation() {
-		// Save current location
-		line = locator.getLineNumber();
-		column = locator.getColumnNumber();
+		if (lazyLocations == false && locator != null) {
+			// Save current location
+			line = locator.getLineNumber();
+			column = locator.getColumnNumber();
+		}
+	}
+
+	/**
+	 * @return Location saved after previous event or null in lazy mode
+	 */
+	private SAXLocation getLocation() {
+		return lazyLocations == true ? null : new SAXLocation(line, column);
+	}
+
+	/**
+	 * ErrorHandler filling in locations of RDFaExceptions in lazy mode
+	 */
+	private static class LazyLocationErrorHandler implements ErrorHandler {
+		private ErrorHandler errorHandler;
+		private Locator locator;
+		private boolean lazyLocations = false;
+
+		private LazyLocationErrorHandler(ErrorHandler errorHandler) {
+			this.errorHandler = errorHandler;
+		}
+
+		private void locate(Exception exception) {
+			if (lazyLocations == true && locator != null
+					&& exception instanceof RDFaException
+					&& ((RDFaException) exception).getLocation() == null) {
+				((RDFaException) exception).setLocation(new SAXLocation(
+						locator.getLineNumber(), locator.getColumnNumber()));
+			}
+		}
+
+		public void warning(Exception exception) {
+			locate(exception);
+			errorHandler.warning(exception);
+		}
+
+		public void fatalError(Exception exception) {
+			locate(exception);
+			errorHandler.fatalError(exception);
+		}
 	}
 }
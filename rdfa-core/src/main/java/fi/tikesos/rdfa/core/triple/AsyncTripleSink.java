@@ -0,0 +1,329 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.triple;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import fi.tikesos.rdfa.core.datatype.Component;
+import fi.tikesos.rdfa.core.datatype.Language;
+import fi.tikesos.rdfa.core.datatype.Literal;
+import fi.tikesos.rdfa.core.exception.StopParsingException;
+
+/**
+ * TripleSink handing triples to another TripleSink on a separate consumer
+ * thread through a bounded single-producer single-consumer ring buffer.
+ * The parser thread blocks when the buffer is full, and endDocument()
+ * waits until the consumer has delivered every triple of the document
+ * before signalling the end of document to the target sink. Methods must
+ * be called from one producer thread only. StopParsingException thrown by
+ * the target sink is rethrown as is on the producer thread, so that the
+ * parser ends with PARSING_STOPPED. Other failures of the target sink are
+ * rethrown wrapped in IllegalStateException.
+ * 
+ * @author ssakorho
+ * 
+ */
+public class AsyncTripleSink implements DocumentTripleSink {
+	public static final int DEFAULT_CAPACITY = 4096;
+	private static final long PARK_NANOS = 50000L;
+	private TripleSink tripleSink;
+	// Ring buffer
+	private int mask;
+	private String[] subjects;
+	private String[] predicates;
+	private String[] objects;
+	private String[] languages;
+	private String[] datatypes;
+	private boolean[] literals;
+	// Next sequence to publish, written by producer only
+	private AtomicLong tail = new AtomicLong();
+	// Next sequence to consume, written by consumer only
+	private AtomicLong head = new AtomicLong();
+	private volatile boolean running = true;
+	private volatile boolean consumerWaiting = false;
+	private volatile Throwable failure = null;
+	private Thread consumer;
+
+	/**
+	 * Class constructor.
+	 * 
+	 * @param tripleSink
+	 *            The sink triples are delivered to
+	 */
+	public AsyncTripleSink(TripleSink tripleSink) {
+		this(tripleSink, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Class constructor.
+	 * 
+	 * @param tripleSink
+	 *            The sink triples are delivered to
+	 * @param capacity
+	 *            Capacity of the ring buffer, rounded up to a power of two
+	 */
+	public AsyncTripleSink(TripleSink tripleSink, int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity) {
+			size <<= 1;
+		}
+		this.tripleSink = tripleSink;
+		this.mask = size - 1;
+		this.subjects = new String[size];
+		this.predicates = new String[size];
+		this.objects = new String[size];
+		this.languages = new String[size];
+		this.datatypes = new String[size];
+		this.literals = new boolean[size];
+		this.consumer = new Thread(new Runnable() {
+			public void run() {
+				consume();
+			}
+		}, "AsyncTripleSink");
+		this.consumer.setDaemon(true);
+		this.consumer.start();
+	}
+
+	/**
+	 * Wait until every published triple has been delivered
+	 */
+	public void flush() {
+		while (head.get() != tail.get()) {
+			checkFailure();
+			LockSupport.unpark(consumer);
+			LockSupport.parkNanos(PARK_NANOS);
+		}
+		checkFailure();
+	}
+
+	/**
+	 * Wait until the consumer has caught up, without checking for failure
+	 */
+	private void drain() {
+		while (head.get() != tail.get()) {
+			LockSupport.unpark(consumer);
+			LockSupport.parkNanos(PARK_NANOS);
+		}
+	}
+
+	/**
+	 * Deliver remaining triples and stop the consumer thread
+	 * 
+	 * @throws InterruptedException
+	 */
+	public void close() throws InterruptedException {
+		try {
+			flush();
+		} catch (StopParsingException exception) {
+			// Already reported to the parser
+			drain();
+		} finally {
+			running = false;
+			LockSupport.unpark(consumer);
+			consumer.join();
+		}
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.DocumentTripleSink#startDocument()
+	 */
+	@Override
+	public void startDocument() {
+		if (failure instanceof StopParsingException) {
+			// Drop what is left of the stopped document
+			drain();
+			failure = null;
+		}
+		flush();
+		if (tripleSink instanceof DocumentTripleSink) {
+			((DocumentTripleSink) tripleSink).startDocument();
+		}
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.DocumentTripleSink#endDocument()
+	 */
+	@Override
+	public void endDocument() {
+		StopParsingException stop = null;
+		try {
+			flush();
+		} catch (StopParsingException exception) {
+			// Target still gets the end of the stopped document
+			stop = exception;
+			drain();
+		}
+		if (tripleSink instanceof DocumentTripleSink) {
+			((DocumentTripleSink) tripleSink).endDocument();
+		}
+		if (stop != null) {
+			throw stop;
+		}
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#startRelativeTripleCaching()
+	 */
+	@Override
+	public void startRelativeTripleCaching() {
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#stopRelativeTripleCaching()
+	 */
+	@Override
+	public void stopRelativeTripleCaching() {
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTriple(fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component)
+	 */
+	@Override
+	public void generateTriple(Component subject, Component predicate,
+			Component object) {
+		publish(subject.getValue(), predicate.getValue(),
+				object.getValue(), false, null, null);
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTriple(java.lang.String,
+	 *      java.lang.String, java.lang.String)
+	 */
+	@Override
+	public void generateTriple(String subject, String predicate, String object) {
+		publish(subject, predicate, object, false, null, null);
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTripleLiteral(fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Literal,
+	 *      fi.tikesos.rdfa.core.datatype.Language,
+	 *      fi.tikesos.rdfa.core.datatype.Component)
+	 */
+	@Override
+	public void generateTripleLiteral(Component subject, Component predicate,
+			Literal literal, Language language, Component datatype) {
+		String lang = language != null ? language.getValue() : null;
+		publish(subject.getValue(), predicate.getValue(),
+				literal.getValue(), true, lang,
+				datatype != null ? datatype.getValue() : null);
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTripleLiteral(java.lang.String,
+	 *      java.lang.String, java.lang.String, java.lang.String,
+	 *      java.lang.String)
+	 */
+	@Override
+	public void generateTripleLiteral(String subject, String predicate,
+			String literal, String language, String datatype) {
+		publish(subject, predicate, literal, true, language, datatype);
+	}
+
+	/**
+	 * Publish a triple to the ring buffer, waiting for free space
+	 */
+	private void publish(String subject, String predicate, String object,
+			boolean literal, String language, String datatype) {
+		checkFailure();
+		long sequence = tail.get();
+		while (sequence - head.get() > mask) {
+			// Buffer is full
+			checkFailure();
+			LockSupport.unpark(consumer);
+			LockSupport.parkNanos(PARK_NANOS);
+		}
+		int index = (int) sequence & mask;
+		subjects[index] = subject;
+		predicates[index] = predicate;
+		objects[index] = object;
+		literals[index] = literal;
+		languages[index] = language;
+		datatypes[index] = datatype;
+		// Ordered before reading consumerWaiting, so a parking consumer
+		// either sees the triple or is woken up
+		tail.set(sequence + 1);
+		if (consumerWaiting == true) {
+			LockSupport.unpark(consumer);
+		}
+	}
+
+	/**
+	 * Consumer thread loop
+	 */
+	private void consume() {
+		long sequence = head.get();
+		while (true) {
+			long available = tail.get();
+			if (sequence == available) {
+				if (running == false) {
+					break;
+				}
+				consumerWaiting = true;
+				if (tail.get() == sequence && running == true) {
+					LockSupport.park(this);
+				}
+				consumerWaiting = false;
+				continue;
+			}
+			for (; sequence < available; sequence++) {
+				int index = (int) sequence & mask;
+				if (failure == null) {
+					try {
+						if (literals[index] == true) {
+							tripleSink.generateTripleLiteral(subjects[index],
+									predicates[index], objects[index],
+									languages[index], datatypes[index]);
+						} else {
+							tripleSink.generateTriple(subjects[index],
+									predicates[index], objects[index]);
+						}
+					} catch (Throwable throwable) {
+						// Reported to producer, remaining triples are dropped
+						failure = throwable;
+					}
+				}
+				subjects[index] = null;
+				predicates[index] = null;
+				objects[index] = null;
+				languages[index] = null;
+				datatypes[index] = null;
+			}
+			head.lazySet(sequence);
+		}
+	}
+
+	/**
+	 * Rethrow failure of target sink on producer thread
+	 */
+	private void checkFailure() {
+		Throwable failure = this.failure;
+		if (failure != null) {
+			if (failure instanceof StopParsingException) {
+				throw (StopParsingException) failure;
+			}
+			throw new IllegalStateException("target triple sink failed",
+					failure);
+		}
+	}
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.triple;
+
+import fi.tikesos.rdfa.core.datatype.Component;
+import fi.tikesos.rdfa.core.datatype.Language;
+import fi.tikesos.rdfa.core.datatype.Literal;
+
+/**
+ * TripleSink collecting triples into a reusable TripleBatch that is handed
+ * to a TripleBatchSink whenever it fills up and at the end of document.
+ * 
+ * @author ssakorho
+ * 
+ */
+public class BatchingTripleSink implements DocumentTripleSink {
+	public static final int DEFAULT_BATCH_SIZE = 1024;
+	private TripleBatchSink tripleBatchSink;
+	private TripleBatch batch;
+
+	/**
+	 * Class constructor.
+	 * 
+	 * @param tripleBatchSink
+	 *            The sink to hand batches to
+	 */
+	public BatchingTripleSink(TripleBatchSink tripleBatchSink) {
+		this(tripleBatchSink, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Class constructor.
+	 * 
+	 * @param tripleBatchSink
+	 *            The sink to hand batches to
+	 * @param batchSize
+	 *            Maximum number of triples in a batch
+	 */
+	public BatchingTripleSink(TripleBatchSink tripleBatchSink, int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("batch size must be positive");
+		}
+		this.tripleBatchSink = tripleBatchSink;
+		this.batch = new TripleBatch(batchSize);
+	}
+
+	/**
+	 * Hand collected triples to the batch sink
+	 */
+	public void flush() {
+		if (batch.size() > 0) {
+			tripleBatchSink.accept(batch);
+			batch.clear();
+		}
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.DocumentTripleSink#startDocument()
+	 */
+	@Override
+	public void startDocument() {
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.DocumentTripleSink#endDocument()
+	 */
+	@Override
+	public void endDocument() {
+		flush();
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#startRelativeTripleCaching()
+	 */
+	@Override
+	public void startRelativeTripleCaching() {
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#stopRelativeTripleCaching()
+	 */
+	@Override
+	public void stopRelativeTripleCaching() {
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTriple(fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component)
+	 */
+	@Override
+	public void generateTriple(Component subject, Component predicate,
+			Component object) {
+		generateTriple(subject.getValue(), predicate.getValue(),
+				object.getValue());
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTriple(java.lang.String,
+	 *      java.lang.String, java.lang.String)
+	 */
+	@Override
+	public void generateTriple(String subject, String predicate, String object) {
+		batch.add(subject, predicate, object);
+		if (batch.isFull() == true) {
+			flush();
+		}
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTripleLiteral(fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Literal,
+	 *      fi.tikesos.rdfa.core.datatype.Language,
+	 *      fi.tikesos.rdfa.core.datatype.Component)
+	 */
+	@Override
+	public void generateTripleLiteral(Component subject, Component predicate,
+			Literal literal, Language language, Component datatype) {
+		String lang = language != null ? language.getValue() : null;
+		generateTripleLiteral(subject.getValue(), predicate.getValue(),
+				literal.getValue(), lang, datatype != null ? datatype
+						.getValue() : null);
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTripleLiteral(java.lang.String,
+	 *      java.lang.String, java.lang.String, java.lang.String,
+	 *      java.lang.String)
+	 */
+	@Override
+	public void generateTripleLiteral(String subject, String predicate,
+			String literal, String language, String datatype) {
+		batch.addLiteral(subject, predicate, literal, language, datatype);
+		if (batch.isFull() == true) {
+			flush();
+		}
+	}
+}
@@ -0,0 +1,228 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.triple;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reader for streams written by BinaryTripleWriterSink, replaying the
+ * triples into any TripleSink. Document boundaries are passed on to
+ * DocumentTripleSinks.
+ * 
+ * @author ssakorho
+ * 
+ */
+public class BinaryTripleReader {
+	private static final int BUFFER_SIZE = 8192;
+	private InputStream input;
+	private byte[] buffer = new byte[BUFFER_SIZE];
+	private int position = 0;
+	private int limit = 0;
+	private List<String> terms = new ArrayList<String>();
+	private boolean headerRead = false;
+
+	/**
+	 * Class constructor.
+	 * 
+	 * @param input
+	 *            The stream to read from
+	 */
+	public BinaryTripleReader(InputStream input) {
+		this.input = input;
+	}
+
+	/**
+	 * Replay all triples of the stream
+	 * 
+	 * @param tripleSink
+	 *            The sink to generate triples to
+	 * @return Number of triples read
+	 * @throws IOException
+	 *             If stream cannot be read or is malformed
+	 */
+	public long replay(TripleSink tripleSink) throws IOException {
+		if (headerRead == false) {
+			readHeader();
+		}
+		DocumentTripleSink documentTripleSink = null;
+		if (tripleSink instanceof DocumentTripleSink) {
+			documentTripleSink = (DocumentTripleSink) tripleSink;
+		}
+		long count = 0;
+		int tag;
+		while ((tag = read()) != -1) {
+			switch (tag) {
+			case BinaryTripleWriterSink.TRIPLE:
+				tripleSink.generateTriple(readTerm(), readTerm(), readTerm());
+				count++;
+				break;
+			case BinaryTripleWriterSink.LITERAL:
+				String subject = readTerm();
+				String predicate = readTerm();
+				int flags = readByte();
+				String language = null;
+				if ((flags & BinaryTripleWriterSink.HAS_LANGUAGE) != 0) {
+					language = readTerm();
+				}
+				String datatype = null;
+				if ((flags & BinaryTripleWriterSink.HAS_DATATYPE) != 0) {
+					datatype = readTerm();
+				}
+				tripleSink.generateTripleLiteral(subject, predicate,
+						readString(), language, datatype);
+				count++;
+				break;
+			case BinaryTripleWriterSink.START_DOCUMENT:
+				if (documentTripleSink != null) {
+					documentTripleSink.startDocument();
+				}
+				break;
+			case BinaryTripleWriterSink.END_DOCUMENT:
+				if (documentTripleSink != null) {
+					documentTripleSink.endDocument();
+				}
+				break;
+			case BinaryTripleWriterSink.RESET:
+				terms.clear();
+				break;
+			case BinaryTripleWriterSink.END_OF_STREAM:
+				return count;
+			default:
+				throw new IOException("unknown record " + tag);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @throws IOException
+	 */
+	private void readHeader() throws IOException {
+		for (int i = 0; i < BinaryTripleWriterSink.MAGIC.length; i++) {
+			if (readByte() != BinaryTripleWriterSink.MAGIC[i]) {
+				throw new IOException("not a binary triple stream");
+			}
+		}
+		int version = readByte();
+		if (version != BinaryTripleWriterSink.VERSION) {
+			throw new IOException("unsupported version " + version);
+		}
+		headerRead = true;
+	}
+
+	/**
+	 * @return Term
+	 * @throws IOException
+	 */
+	private String readTerm() throws IOException {
+		int reference = readVarint();
+		if (reference == 0) {
+			String term = readString();
+			terms.add(term);
+			return term;
+		}
+		if (reference > terms.size()) {
+			throw new IOException("unknown term " + (reference - 1));
+		}
+		return terms.get(reference - 1);
+	}
+
+	/**
+	 * @return String
+	 * @throws IOException
+	 */
+	private String readString() throws IOException {
+		int length = readVarint();
+		if (limit - position >= length) {
+			String str = new String(buffer, position, length, "UTF-8");
+			position += length;
+			return str;
+		}
+		byte[] bytes = new byte[length];
+		int offset = 0;
+		while (offset < length) {
+			if (position == limit && fill() == false) {
+				throw new EOFException();
+			}
+			int count = Math.min(length - offset, limit - position);
+			System.arraycopy(buffer, position, bytes, offset, count);
+			position += count;
+			offset += count;
+		}
+		return new String(bytes, "UTF-8");
+	}
+
+	/**
+	 * @return Varint value
+	 * @throws IOException
+	 */
+	private int readVarint() throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = readByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("malformed varint");
+	}
+
+	/**
+	 * @return Next byte
+	 * @throws IOException
+	 *             At end of stream
+	 */
+	private int readByte() throws IOException {
+		int b = read();
+		if (b == -1) {
+			throw new EOFException();
+		}
+		return b;
+	}
+
+	/**
+	 * @return Next byte or -1 at end of stream
+	 * @throws IOException
+	 */
+	private int read() throws IOException {
+		if (position == limit && fill() == false) {
+			return -1;
+		}
+		return buffer[position++] & 0xFF;
+	}
+
+	/**
+	 * @return False at end of stream
+	 * @throws IOException
+	 */
+	private boolean fill() throws IOException {
+		int count;
+		do {
+			count = input.read(buffer, 0, buffer.length);
+		} while (count == 0);
+		if (count == -1) {
+			return false;
+		}
+		position = 0;
+		limit = count;
+		return true;
+	}
+}
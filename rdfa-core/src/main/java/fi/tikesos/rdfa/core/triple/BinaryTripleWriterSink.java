@@ -0,0 +1,308 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.triple;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.HashMap;
+import java.util.Map;
+
+import fi.tikesos.rdfa.core.datatype.Component;
+import fi.tikesos.rdfa.core.datatype.Language;
+import fi.tikesos.rdfa.core.datatype.Literal;
+
+/**
+ * TripleSink writing triples in a compact binary stream read by
+ * BinaryTripleReader. IRIs, blank nodes, languages and datatypes are
+ * written once per stream and referred to afterwards by varint ids.
+ * 
+ * Stream layout: magic "RDFT" and version, followed by records that start
+ * with a tag byte. A term reference is a varint, 0 followed by a new term
+ * string or id + 1 of a term written before. Strings are a varint UTF-8
+ * byte length followed by the bytes.
+ * 
+ * @author ssakorho
+ * 
+ */
+public class BinaryTripleWriterSink implements DocumentTripleSink {
+	static final byte[] MAGIC = { 'R', 'D', 'F', 'T' };
+	static final int VERSION = 1;
+	// s p o
+	static final int TRIPLE = 1;
+	// s p flags [language] [datatype] literal
+	static final int LITERAL = 2;
+	static final int START_DOCUMENT = 3;
+	static final int END_DOCUMENT = 4;
+	// Both sides forget the dictionary
+	static final int RESET = 5;
+	static final int END_OF_STREAM = 0;
+	static final int HAS_LANGUAGE = 1;
+	static final int HAS_DATATYPE = 2;
+	public static final int DEFAULT_MAX_TERMS = 1 << 20;
+	private static final int BUFFER_SIZE = 8192;
+	private OutputStream output;
+	private byte[] buffer = new byte[BUFFER_SIZE];
+	private int position = 0;
+	private Map<String, Integer> terms = new HashMap<String, Integer>();
+	private int maxTerms;
+
+	/**
+	 * Class constructor.
+	 * 
+	 * @param output
+	 *            The stream to write to
+	 */
+	public BinaryTripleWriterSink(OutputStream output) {
+		this(output, DEFAULT_MAX_TERMS);
+	}
+
+	/**
+	 * Class constructor.
+	 * 
+	 * @param output
+	 *            The stream to write to
+	 * @param maxTerms
+	 *            Number of dictionary terms after which the dictionary is
+	 *            reset to bound memory of both writer and reader
+	 */
+	public BinaryTripleWriterSink(OutputStream output, int maxTerms) {
+		this.output = output;
+		this.maxTerms = maxTerms;
+		writeBytes(MAGIC, 0, MAGIC.length);
+		writeByte(VERSION);
+	}
+
+	/**
+	 * Write buffered output and flush the stream
+	 */
+	public void flush() {
+		try {
+			writeBuffer();
+			output.flush();
+		} catch (IOException exception) {
+			throw new IllegalStateException("writing triples failed",
+					exception);
+		}
+	}
+
+	/**
+	 * Write end of stream marker and close the stream
+	 */
+	public void close() {
+		writeByte(END_OF_STREAM);
+		try {
+			writeBuffer();
+			output.close();
+		} catch (IOException exception) {
+			throw new IllegalStateException("writing triples failed",
+					exception);
+		}
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.DocumentTripleSink#startDocument()
+	 */
+	@Override
+	public void startDocument() {
+		writeByte(START_DOCUMENT);
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.DocumentTripleSink#endDocument()
+	 */
+	@Override
+	public void endDocument() {
+		writeByte(END_DOCUMENT);
+		flush();
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#startRelativeTripleCaching()
+	 */
+	@Override
+	public void startRelativeTripleCaching() {
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#stopRelativeTripleCaching()
+	 */
+	@Override
+	public void stopRelativeTripleCaching() {
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTriple(fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component)
+	 */
+	@Override
+	public void generateTriple(Component subject, Component predicate,
+			Component object) {
+		generateTriple(subject.getValue(), predicate.getValue(),
+				object.getValue());
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTriple(java.lang.String,
+	 *      java.lang.String, java.lang.String)
+	 */
+	@Override
+	public void generateTriple(String subject, String predicate, String object) {
+		checkTerms();
+		writeByte(TRIPLE);
+		writeTerm(subject);
+		writeTerm(predicate);
+		writeTerm(object);
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTripleLiteral(fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Literal,
+	 *      fi.tikesos.rdfa.core.datatype.Language,
+	 *      fi.tikesos.rdfa.core.datatype.Component)
+	 */
+	@Override
+	public void generateTripleLiteral(Component subject, Component predicate,
+			Literal literal, Language language, Component datatype) {
+		String lang = language != null ? language.getValue() : null;
+		generateTripleLiteral(subject.getValue(), predicate.getValue(),
+				literal.getValue(), lang, datatype != null ? datatype
+						.getValue() : null);
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTripleLiteral(java.lang.String,
+	 *      java.lang.String, java.lang.String, java.lang.String,
+	 *      java.lang.String)
+	 */
+	@Override
+	public void generateTripleLiteral(String subject, String predicate,
+			String literal, String language, String datatype) {
+		checkTerms();
+		writeByte(LITERAL);
+		writeTerm(subject);
+		writeTerm(predicate);
+		writeByte((language != null ? HAS_LANGUAGE : 0)
+				| (datatype != null ? HAS_DATATYPE : 0));
+		if (language != null) {
+			writeTerm(language);
+		}
+		if (datatype != null) {
+			writeTerm(datatype);
+		}
+		writeString(literal);
+	}
+
+	/**
+	 * Reset dictionary when it has grown too large. At most four terms are
+	 * added by one record.
+	 */
+	private void checkTerms() {
+		if (terms.size() + 4 > maxTerms) {
+			writeByte(RESET);
+			terms.clear();
+		}
+	}
+
+	/**
+	 * @param term
+	 */
+	private void writeTerm(String term) {
+		Integer id = terms.get(term);
+		if (id != null) {
+			writeVarint(id + 1);
+		} else {
+			terms.put(term, terms.size());
+			writeVarint(0);
+			writeString(term);
+		}
+	}
+
+	/**
+	 * @param str
+	 */
+	private void writeString(String str) {
+		byte[] bytes;
+		try {
+			bytes = str.getBytes("UTF-8");
+		} catch (UnsupportedEncodingException exception) {
+			throw new IllegalStateException(exception);
+		}
+		writeVarint(bytes.length);
+		writeBytes(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * @param value
+	 *            Non-negative value
+	 */
+	private void writeVarint(int value) {
+		while ((value & ~0x7F) != 0) {
+			writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		writeByte(value);
+	}
+
+	/**
+	 * @param value
+	 */
+	private void writeByte(int value) {
+		if (position == buffer.length) {
+			writeBufferUnchecked();
+		}
+		buffer[position++] = (byte) value;
+	}
+
+	/**
+	 * @param bytes
+	 * @param offset
+	 * @param length
+	 */
+	private void writeBytes(byte[] bytes, int offset, int length) {
+		while (length > 0) {
+			if (position == buffer.length) {
+				writeBufferUnchecked();
+			}
+			int count = Math.min(length, buffer.length - position);
+			System.arraycopy(bytes, offset, buffer, position, count);
+			position += count;
+			offset += count;
+			length -= count;
+		}
+	}
+
+	/**
+	 * @throws IOException
+	 */
+	private void writeBuffer() throws IOException {
+		if (position > 0) {
+			output.write(buffer, 0, position);
+			position = 0;
+		}
+	}
+
+	private void writeBufferUnchecked() {
+		try {
+			writeBuffer();
+		} catch (IOException exception) {
+			throw new IllegalStateException("writing triples failed",
+					exception);
+		}
+	}
+}
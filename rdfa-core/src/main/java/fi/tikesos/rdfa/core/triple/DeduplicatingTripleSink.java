@@ -0,0 +1,335 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.triple;
+
+import java.util.Arrays;
+
+import fi.tikesos.rdfa.core.datatype.Component;
+import fi.tikesos.rdfa.core.datatype.Language;
+import fi.tikesos.rdfa.core.datatype.Literal;
+
+/**
+ * TripleSink decorator dropping duplicate triples within a document. Seen
+ * triples are remembered as 64-bit fingerprints in an open addressing hash
+ * set that grows up to the given memory cap. Once the cap is reached new
+ * fingerprints are no longer remembered, so later duplicates of them pass
+ * through. Alternatively a Bloom filter of the cap's size can be used, which
+ * never fills up but may drop a small fraction of distinct triples.
+ * 
+ * Starting a document is cheap, so one sink can serve many small documents.
+ * Set entries are tagged with the document they belong to, so older ones
+ * simply count as free, and the grown set is kept. The Bloom filter clears
+ * only the words that were set, unless most of the filter is in use.
+ * 
+ * @author ssakorho
+ * 
+ */
+public class DeduplicatingTripleSink implements DocumentTripleSink {
+	public static final int DEFAULT_MEMORY_LIMIT = 8 * 1024 * 1024;
+	private static final int INITIAL_CAPACITY = 1024;
+	private static final int BLOOM_HASHES = 4;
+	private static final long EPOCH_MASK = 0xffL;
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+	private TripleSink tripleSink;
+	private boolean bloom;
+	private int maxCapacity;
+	// Hash set of fingerprints, low byte tagged with the epoch of the
+	// document. Entries of other epochs are free slots.
+	private long[] table;
+	private int size;
+	private long epoch = 1;
+	// Bloom filter bits and the words set since last clear
+	private long[] bits;
+	private int[] dirtyWords;
+	private int dirtyCount;
+	private long suppressed = 0;
+
+	/**
+	 * Class constructor using an exact fingerprint set with default memory
+	 * limit.
+	 * 
+	 * @param tripleSink
+	 *            The sink to pass distinct triples on to
+	 */
+	public DeduplicatingTripleSink(TripleSink tripleSink) {
+		this(tripleSink, DEFAULT_MEMORY_LIMIT, false);
+	}
+
+	/**
+	 * Class constructor.
+	 * 
+	 * @param tripleSink
+	 *            The sink to pass distinct triples on to
+	 * @param memoryLimit
+	 *            Maximum memory in bytes used for remembering triples
+	 * @param bloom
+	 *            True to use a Bloom filter instead of an exact fingerprint
+	 *            set
+	 */
+	public DeduplicatingTripleSink(TripleSink tripleSink, int memoryLimit,
+			boolean bloom) {
+		if (memoryLimit < 64) {
+			throw new IllegalArgumentException(
+					"memory limit must be at least 64 bytes");
+		}
+		this.tripleSink = tripleSink;
+		this.bloom = bloom;
+		// Largest power of two of longs fitting the limit
+		this.maxCapacity = Integer.highestOneBit(memoryLimit / 8);
+		if (bloom == true) {
+			this.bits = new long[maxCapacity];
+			this.dirtyWords = new int[Math.max(1, maxCapacity >> 4)];
+		} else {
+			this.table = new long[Math.min(INITIAL_CAPACITY, maxCapacity)];
+		}
+	}
+
+	/**
+	 * @return Number of duplicate triples dropped since creation
+	 */
+	public long getSuppressedCount() {
+		return suppressed;
+	}
+
+	/**
+	 * Forget triples seen so far
+	 */
+	public void clear() {
+		if (bloom == true) {
+			if (dirtyCount > dirtyWords.length) {
+				// Too many words to track
+				Arrays.fill(bits, 0L);
+			} else {
+				for (int i = 0; i < dirtyCount; i++) {
+					bits[dirtyWords[i]] = 0L;
+				}
+			}
+			dirtyCount = 0;
+		} else {
+			size = 0;
+			if (++epoch > EPOCH_MASK) {
+				// Tags wrap around, clear stale entries for real
+				Arrays.fill(table, 0L);
+				epoch = 1;
+			}
+		}
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.DocumentTripleSink#startDocument()
+	 */
+	@Override
+	public void startDocument() {
+		clear();
+		if (tripleSink instanceof DocumentTripleSink) {
+			((DocumentTripleSink) tripleSink).startDocument();
+		}
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.DocumentTripleSink#endDocument()
+	 */
+	@Override
+	public void endDocument() {
+		if (tripleSink instanceof DocumentTripleSink) {
+			((DocumentTripleSink) tripleSink).endDocument();
+		}
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#startRelativeTripleCaching()
+	 */
+	@Override
+	public void startRelativeTripleCaching() {
+		tripleSink.startRelativeTripleCaching();
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#stopRelativeTripleCaching()
+	 */
+	@Override
+	public void stopRelativeTripleCaching() {
+		tripleSink.stopRelativeTripleCaching();
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTriple(fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component)
+	 */
+	@Override
+	public void generateTriple(Component subject, Component predicate,
+			Component object) {
+		if (add(fingerprint(subject.getValue(), predicate.getValue(),
+				object.getValue(), null, null, false)) == true) {
+			tripleSink.generateTriple(subject, predicate, object);
+		}
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTriple(java.lang.String,
+	 *      java.lang.String, java.lang.String)
+	 */
+	@Override
+	public void generateTriple(String subject, String predicate, String object) {
+		if (add(fingerprint(subject, predicate, object, null, null, false)) == true) {
+			tripleSink.generateTriple(subject, predicate, object);
+		}
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTripleLiteral(fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Literal,
+	 *      fi.tikesos.rdfa.core.datatype.Language,
+	 *      fi.tikesos.rdfa.core.datatype.Component)
+	 */
+	@Override
+	public void generateTripleLiteral(Component subject, Component predicate,
+			Literal literal, Language language, Component datatype) {
+		if (add(fingerprint(subject.getValue(), predicate.getValue(),
+				literal.getValue(), language != null ? language.getValue()
+						: null, datatype != null ? datatype.getValue() : null,
+				true)) == true) {
+			tripleSink.generateTripleLiteral(subject, predicate, literal,
+					language, datatype);
+		}
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTripleLiteral(java.lang.String,
+	 *      java.lang.String, java.lang.String, java.lang.String,
+	 *      java.lang.String)
+	 */
+	@Override
+	public void generateTripleLiteral(String subject, String predicate,
+			String literal, String language, String datatype) {
+		if (add(fingerprint(subject, predicate, literal, language, datatype,
+				true)) == true) {
+			tripleSink.generateTripleLiteral(subject, predicate, literal,
+					language, datatype);
+		}
+	}
+
+	/**
+	 * Remember fingerprint
+	 * 
+	 * @param fingerprint
+	 * @return False if triple has been seen before, otherwise true
+	 */
+	private boolean add(long fingerprint) {
+		boolean added = (bloom == true ? addBloom(fingerprint)
+				: addExact(fingerprint));
+		if (added == false) {
+			suppressed++;
+		}
+		return added;
+	}
+
+	private boolean addExact(long fingerprint) {
+		long entry = (fingerprint & ~EPOCH_MASK) | epoch;
+		int mask = table.length - 1;
+		int i = (int) (entry >>> 32) & mask;
+		while ((table[i] & EPOCH_MASK) == epoch) {
+			if (table[i] == entry) {
+				return false;
+			}
+			i = (i + 1) & mask;
+		}
+		if ((size + 1) * 2 > table.length) {
+			if (table.length == maxCapacity) {
+				// Memory limit reached, stop remembering
+				return true;
+			}
+			grow();
+			return addExact(fingerprint);
+		}
+		table[i] = entry;
+		size++;
+		return true;
+	}
+
+	private void grow() {
+		long[] old = table;
+		table = new long[old.length << 1];
+		int mask = table.length - 1;
+		for (long entry : old) {
+			if ((entry & EPOCH_MASK) == epoch) {
+				int i = (int) (entry >>> 32) & mask;
+				while (table[i] != 0) {
+					i = (i + 1) & mask;
+				}
+				table[i] = entry;
+			}
+		}
+	}
+
+	private boolean addBloom(long fingerprint) {
+		long mask = ((long) bits.length << 6) - 1;
+		// Double hashing from the two halves of the fingerprint
+		long h1 = fingerprint;
+		long h2 = (fingerprint >>> 32) | 1;
+		boolean added = false;
+		for (int k = 0; k < BLOOM_HASHES; k++) {
+			long bit = (h1 + k * h2) & mask;
+			int word = (int) (bit >>> 6);
+			long bitMask = 1L << bit;
+			if ((bits[word] & bitMask) == 0) {
+				if (bits[word] == 0 && dirtyCount++ < dirtyWords.length) {
+					dirtyWords[dirtyCount - 1] = word;
+				}
+				bits[word] |= bitMask;
+				added = true;
+			}
+		}
+		return added;
+	}
+
+	/**
+	 * Calculate a 64-bit fingerprint of a triple
+	 */
+	private static long fingerprint(String subject, String predicate,
+			String object, String language, String datatype, boolean literal) {
+		long hash = FNV_OFFSET;
+		hash = hash(hash, subject);
+		hash = hash(hash, predicate);
+		hash = hash(hash, object);
+		if (literal == true) {
+			hash = (hash ^ 1) * FNV_PRIME;
+			hash = hash(hash, language);
+			hash = hash(hash, datatype);
+		}
+		// Final avalanche to spread bits for table and filter indices
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	private static long hash(long hash, String value) {
+		if (value == null) {
+			return (hash ^ 2) * FNV_PRIME;
+		}
+		for (int i = 0, length = value.length(); i < length; i++) {
+			hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+		}
+		// Terminate value so that field boundaries are part of the hash
+		return (hash ^ (0xffff0000L | value.length())) * FNV_PRIME;
+	}
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.triple;
+
+/**
+ * TripleSink that is told when a document begins and ends. Sinks that
+ * buffer or hand triples over to another thread complete their work in
+ * endDocument().
+ * 
+ * @author ssakorho
+ * 
+ */
+public interface DocumentTripleSink extends TripleSink {
+
+	/**
+	 * Signals sink that parsing of a document begins
+	 */
+	public void startDocument();
+
+	/**
+	 * Signals sink that parsing of the document has ended and no more
+	 * triples will be generated for it
+	 */
+	public void endDocument();
+}
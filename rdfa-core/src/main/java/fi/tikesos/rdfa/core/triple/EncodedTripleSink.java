@@ -0,0 +1,70 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.triple;
+
+import fi.tikesos.rdfa.core.datatype.IRIDictionary;
+
+/**
+ * EncodedTripleSink interface receives IRIs and blank nodes as IRI
+ * dictionary ids. Use EncodingTripleSink to connect one to the parser.
+ * 
+ * @author ssakorho
+ * 
+ */
+public interface EncodedTripleSink {
+	/**
+	 * Value of datatype id when literal has no datatype
+	 */
+	public static final int NO_DATATYPE = -1;
+
+	/**
+	 * Set the dictionary ids refer to. Strings can be materialized on demand
+	 * with IRIDictionary#getIRI(int).
+	 * 
+	 * @param iriDictionary
+	 *            The IRI dictionary
+	 */
+	public void setIRIDictionary(IRIDictionary iriDictionary);
+
+	/**
+	 * Generate a triple
+	 * 
+	 * @param subject
+	 *            Id of the subject IRI or blank node
+	 * @param predicate
+	 *            Id of the predicate IRI
+	 * @param object
+	 *            Id of the object IRI or blank node
+	 */
+	public void generateTriple(int subject, int predicate, int object);
+
+	/**
+	 * Generate a triple
+	 * 
+	 * @param subject
+	 *            Id of the subject IRI or blank node
+	 * @param predicate
+	 *            Id of the predicate IRI
+	 * @param literal
+	 *            Literal value of the triple
+	 * @param language
+	 *            Language of the literal or null
+	 * @param datatype
+	 *            Id of the datatype IRI or NO_DATATYPE
+	 */
+	public void generateTripleLiteral(int subject, int predicate,
+			String literal, String language, int datatype);
+}
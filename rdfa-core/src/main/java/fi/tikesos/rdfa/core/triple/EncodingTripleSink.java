@@ -0,0 +1,163 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.triple;
+
+import fi.tikesos.rdfa.core.datatype.Component;
+import fi.tikesos.rdfa.core.datatype.IRIDictionary;
+import fi.tikesos.rdfa.core.datatype.Language;
+import fi.tikesos.rdfa.core.datatype.Literal;
+
+/**
+ * TripleSink encoding IRIs and blank nodes to IRI dictionary ids for an
+ * EncodedTripleSink. The same dictionary should be set on the parser, so
+ * that ids are assigned once during expansion. Components carrying ids of
+ * another dictionary are rejected with IllegalStateException.
+ * 
+ * @author ssakorho
+ * 
+ */
+public class EncodingTripleSink implements DocumentTripleSink {
+	private EncodedTripleSink encodedTripleSink;
+	private IRIDictionary iriDictionary;
+
+	/**
+	 * Class constructor.
+	 * 
+	 * @param encodedTripleSink
+	 *            The sink to forward encoded triples to
+	 * @param iriDictionary
+	 *            The IRI dictionary used for encoding
+	 */
+	public EncodingTripleSink(EncodedTripleSink encodedTripleSink,
+			IRIDictionary iriDictionary) {
+		this.encodedTripleSink = encodedTripleSink;
+		this.iriDictionary = iriDictionary;
+		encodedTripleSink.setIRIDictionary(iriDictionary);
+	}
+
+	/**
+	 * @return The IRI dictionary
+	 */
+	public IRIDictionary getIRIDictionary() {
+		return iriDictionary;
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.DocumentTripleSink#startDocument()
+	 */
+	@Override
+	public void startDocument() {
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.DocumentTripleSink#endDocument()
+	 */
+	@Override
+	public void endDocument() {
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#startRelativeTripleCaching()
+	 */
+	@Override
+	public void startRelativeTripleCaching() {
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#stopRelativeTripleCaching()
+	 */
+	@Override
+	public void stopRelativeTripleCaching() {
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTriple(fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component)
+	 */
+	@Override
+	public void generateTriple(Component subject, Component predicate,
+			Component object) {
+		encodedTripleSink.generateTriple(encode(subject),
+				encode(predicate), encode(object));
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTriple(java.lang.String,
+	 *      java.lang.String, java.lang.String)
+	 */
+	@Override
+	public void generateTriple(String subject, String predicate, String object) {
+		encodedTripleSink.generateTriple(iriDictionary.getId(subject),
+				iriDictionary.getId(predicate), iriDictionary.getId(object));
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTripleLiteral(fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Literal,
+	 *      fi.tikesos.rdfa.core.datatype.Language,
+	 *      fi.tikesos.rdfa.core.datatype.Component)
+	 */
+	@Override
+	public void generateTripleLiteral(Component subject, Component predicate,
+			Literal literal, Language language, Component datatype) {
+		String lexical = literal.getValue();
+		String lang = language != null ? language.getValue() : null;
+		encodedTripleSink.generateTripleLiteral(encode(subject),
+				encode(predicate), lexical, lang, encodeDatatype(datatype));
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTripleLiteral(java.lang.String,
+	 *      java.lang.String, java.lang.String, java.lang.String,
+	 *      java.lang.String)
+	 */
+	@Override
+	public void generateTripleLiteral(String subject, String predicate,
+			String literal, String language, String datatype) {
+		encodedTripleSink.generateTripleLiteral(iriDictionary.getId(subject),
+				iriDictionary.getId(predicate), literal, language,
+				datatype != null ? iriDictionary.getId(datatype)
+						: EncodedTripleSink.NO_DATATYPE);
+	}
+
+	/**
+	 * @param component
+	 * @return Id of the component
+	 */
+	private int encode(Component component) {
+		IRIDictionary dictionary = component.getDictionary();
+		if (dictionary == null) {
+			// Parser has no dictionary
+			return iriDictionary.getId(component.getValue());
+		}
+		if (dictionary != iriDictionary) {
+			throw new IllegalStateException(
+					"Parser and EncodingTripleSink use different IRI dictionaries");
+		}
+		return component.getId();
+	}
+
+	/**
+	 * @param datatype
+	 * @return Id of the datatype or NO_DATATYPE
+	 */
+	private int encodeDatatype(Component datatype) {
+		return datatype != null ? encode(datatype)
+				: EncodedTripleSink.NO_DATATYPE;
+	}
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.triple;
+
+import fi.tikesos.rdfa.core.datatype.Component;
+import fi.tikesos.rdfa.core.datatype.Language;
+import fi.tikesos.rdfa.core.datatype.Literal;
+import fi.tikesos.rdfa.core.exception.StopParsingException;
+
+/**
+ * TripleSink decorator passing on at most a given number of triples per
+ * document. Parsing is stopped with StopParsingException as soon as the
+ * limit is reached, and triples generated while the document is ended are
+ * dropped.
+ * 
+ * @author ssakorho
+ * 
+ */
+public class LimitingTripleSink implements DocumentTripleSink {
+	private TripleSink tripleSink;
+	private long maxTriples;
+	private long count = 0;
+
+	/**
+	 * Class constructor.
+	 * 
+	 * @param tripleSink
+	 *            The sink to pass triples on to
+	 * @param maxTriples
+	 *            Maximum number of triples per document
+	 */
+	public LimitingTripleSink(TripleSink tripleSink, long maxTriples) {
+		if (maxTriples < 1) {
+			throw new IllegalArgumentException("limit must be positive");
+		}
+		this.tripleSink = tripleSink;
+		this.maxTriples = maxTriples;
+	}
+
+	/**
+	 * @return Number of triples passed on in current document
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return True if the limit has been reached
+	 */
+	public boolean isLimitReached() {
+		return count >= maxTriples;
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.DocumentTripleSink#startDocument()
+	 */
+	@Override
+	public void startDocument() {
+		count = 0;
+		if (tripleSink instanceof DocumentTripleSink) {
+			((DocumentTripleSink) tripleSink).startDocument();
+		}
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.DocumentTripleSink#endDocument()
+	 */
+	@Override
+	public void endDocument() {
+		if (tripleSink instanceof DocumentTripleSink) {
+			((DocumentTripleSink) tripleSink).endDocument();
+		}
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#startRelativeTripleCaching()
+	 */
+	@Override
+	public void startRelativeTripleCaching() {
+		tripleSink.startRelativeTripleCaching();
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#stopRelativeTripleCaching()
+	 */
+	@Override
+	public void stopRelativeTripleCaching() {
+		tripleSink.stopRelativeTripleCaching();
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTriple(fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component)
+	 */
+	@Override
+	public void generateTriple(Component subject, Component predicate,
+			Component object) {
+		if (isLimitReached() == false) {
+			tripleSink.generateTriple(subject, predicate, object);
+			counted();
+		}
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTriple(java.lang.String,
+	 *      java.lang.String, java.lang.String)
+	 */
+	@Override
+	public void generateTriple(String subject, String predicate, String object) {
+		if (isLimitReached() == false) {
+			tripleSink.generateTriple(subject, predicate, object);
+			counted();
+		}
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTripleLiteral(fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Literal,
+	 *      fi.tikesos.rdfa.core.datatype.Language,
+	 *      fi.tikesos.rdfa.core.datatype.Component)
+	 */
+	@Override
+	public void generateTripleLiteral(Component subject, Component predicate,
+			Literal literal, Language language, Component datatype) {
+		if (isLimitReached() == false) {
+			tripleSink.generateTripleLiteral(subject, predicate, literal,
+					language, datatype);
+			counted();
+		}
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTripleLiteral(java.lang.String,
+	 *      java.lang.String, java.lang.String, java.lang.String,
+	 *      java.lang.String)
+	 */
+	@Override
+	public void generateTripleLiteral(String subject, String predicate,
+			String literal, String language, String datatype) {
+		if (isLimitReached() == false) {
+			tripleSink.generateTripleLiteral(subject, predicate, literal,
+					language, datatype);
+			counted();
+		}
+	}
+
+	/**
+	 * Count passed triple and stop parsing when limit is reached
+	 */
+	private void counted() {
+		if (++count == maxTriples) {
+			throw new StopParsingException("Triple limit of " + maxTriples
+					+ " reached");
+		}
+	}
+}
@@ -0,0 +1,486 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.triple;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+import fi.tikesos.rdfa.core.datatype.Component;
+import fi.tikesos.rdfa.core.datatype.Language;
+import fi.tikesos.rdfa.core.datatype.Literal;
+import fi.tikesos.rdfa.core.exception.ErrorHandler;
+import fi.tikesos.rdfa.core.exception.NullErrorHandler;
+
+/**
+ * TripleSink streaming triples as N-Triples, or as N-Quads when a graph
+ * name is given, through a reusable character buffer. Output is flushed at
+ * the end of each document. Failure to write is reported with
+ * IllegalStateException.
+ * 
+ * Invalid language tags come from documents, so they are dropped and
+ * reported to the error handler as warnings. Blank node labels cannot be
+ * escaped; labels generated by the parser are always valid and other
+ * invalid labels are rejected with IllegalArgumentException.
+ * 
+ * @author ssakorho
+ * 
+ */
+public class NTriplesWriterSink implements DocumentTripleSink {
+	private static final int BUFFER_SIZE = 8192;
+	private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+	private Writer writer;
+	private String graph;
+	private ErrorHandler errorHandler = new NullErrorHandler();
+	private char[] buffer = new char[BUFFER_SIZE];
+	private int position = 0;
+
+	/**
+	 * Class constructor for N-Triples output.
+	 * 
+	 * @param writer
+	 *            The writer to write to
+	 */
+	public NTriplesWriterSink(Writer writer) {
+		this(writer, null);
+	}
+
+	/**
+	 * Class constructor.
+	 * 
+	 * @param writer
+	 *            The writer to write to
+	 * @param graph
+	 *            Graph IRI or blank node for N-Quads output, or null for
+	 *            N-Triples output
+	 */
+	public NTriplesWriterSink(Writer writer, String graph) {
+		this.writer = writer;
+		setGraph(graph);
+	}
+
+	/**
+	 * Class constructor. Output is encoded in UTF-8.
+	 * 
+	 * @param channel
+	 *            The channel to write to
+	 * @param graph
+	 *            Graph IRI or blank node for N-Quads output, or null for
+	 *            N-Triples output
+	 */
+	public NTriplesWriterSink(WritableByteChannel channel, String graph) {
+		this(Channels.newWriter(channel, "UTF-8"), graph);
+	}
+
+	/**
+	 * @param graph
+	 *            Graph IRI or blank node for following quads, or null for
+	 *            triples
+	 */
+	public void setGraph(String graph) {
+		if (graph != null) {
+			checkResource(graph);
+		}
+		this.graph = graph;
+	}
+
+	/**
+	 * @return The graph name or null
+	 */
+	public String getGraph() {
+		return graph;
+	}
+
+	/**
+	 * @param errorHandler
+	 *            The handler dropped language tags are reported to
+	 */
+	public void setErrorHandler(ErrorHandler errorHandler) {
+		this.errorHandler = errorHandler;
+	}
+
+	/**
+	 * Write buffered output and flush the writer
+	 */
+	public void flush() {
+		try {
+			writeBuffer();
+			writer.flush();
+		} catch (IOException exception) {
+			throw new IllegalStateException("writing triples failed",
+					exception);
+		}
+	}
+
+	/**
+	 * Write buffered output and close the writer
+	 */
+	public void close() {
+		try {
+			writeBuffer();
+			writer.close();
+		} catch (IOException exception) {
+			throw new IllegalStateException("writing triples failed",
+					exception);
+		}
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.DocumentTripleSink#startDocument()
+	 */
+	@Override
+	public void startDocument() {
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.DocumentTripleSink#endDocument()
+	 */
+	@Override
+	public void endDocument() {
+		flush();
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#startRelativeTripleCaching()
+	 */
+	@Override
+	public void startRelativeTripleCaching() {
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#stopRelativeTripleCaching()
+	 */
+	@Override
+	public void stopRelativeTripleCaching() {
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTriple(fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component)
+	 */
+	@Override
+	public void generateTriple(Component subject, Component predicate,
+			Component object) {
+		generateTriple(subject.getValue(), predicate.getValue(),
+				object.getValue());
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTriple(java.lang.String,
+	 *      java.lang.String, java.lang.String)
+	 */
+	@Override
+	public void generateTriple(String subject, String predicate, String object) {
+		checkResource(subject);
+		checkResource(predicate);
+		checkResource(object);
+		appendResource(subject);
+		append(' ');
+		appendResource(predicate);
+		append(' ');
+		appendResource(object);
+		appendEnd();
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTripleLiteral(fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Literal,
+	 *      fi.tikesos.rdfa.core.datatype.Language,
+	 *      fi.tikesos.rdfa.core.datatype.Component)
+	 */
+	@Override
+	public void generateTripleLiteral(Component subject, Component predicate,
+			Literal literal, Language language, Component datatype) {
+		String lang = language != null ? language.getValue() : null;
+		generateTripleLiteral(subject.getValue(), predicate.getValue(),
+				literal.getValue(), lang, datatype != null ? datatype
+						.getValue() : null);
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTripleLiteral(java.lang.String,
+	 *      java.lang.String, java.lang.String, java.lang.String,
+	 *      java.lang.String)
+	 */
+	@Override
+	public void generateTripleLiteral(String subject, String predicate,
+			String literal, String language, String datatype) {
+		checkResource(subject);
+		checkResource(predicate);
+		if (datatype != null) {
+			checkResource(datatype);
+		}
+		appendResource(subject);
+		append(' ');
+		appendResource(predicate);
+		append(' ');
+		append('"');
+		appendEscaped(literal, false);
+		append('"');
+		if (datatype != null) {
+			append('^');
+			append('^');
+			appendResource(datatype);
+		} else if (language != null && language.isEmpty() == false) {
+			if (isLanguageTag(language) == true) {
+				append('@');
+				append(language);
+			} else {
+				errorHandler.warning(new IllegalArgumentException(
+						"Invalid language tag dropped: " + language));
+			}
+		}
+		appendEnd();
+	}
+
+	/**
+	 * Append graph name (if any) and end of statement
+	 */
+	private void appendEnd() {
+		if (graph != null) {
+			append(' ');
+			appendResource(graph);
+		}
+		append(' ');
+		append('.');
+		append('\n');
+	}
+
+	/**
+	 * Append IRI or blank node
+	 * 
+	 * @param resource
+	 */
+	private void appendResource(String resource) {
+		if (resource.startsWith("_:") == true) {
+			append(resource);
+		} else {
+			append('<');
+			appendEscaped(resource, true);
+			append('>');
+		}
+	}
+
+	/**
+	 * Reject blank node labels that cannot be written, before anything of
+	 * the statement is written
+	 * 
+	 * @param resource
+	 *            IRI or blank node
+	 */
+	private static void checkResource(String resource) {
+		if (resource.startsWith("_:") == true
+				&& isBlankNodeLabel(resource) == false) {
+			throw new IllegalArgumentException("Invalid blank node label: "
+					+ resource);
+		}
+	}
+
+	/**
+	 * @param language
+	 * @return True if language matches [a-zA-Z]+ ('-' [a-zA-Z0-9]+)*
+	 */
+	private static boolean isLanguageTag(String language) {
+		int length = language.length();
+		int i = 0;
+		while (i < length && isAlpha(language.charAt(i)) == true) {
+			i++;
+		}
+		if (i == 0) {
+			return false;
+		}
+		while (i < length) {
+			if (language.charAt(i++) != '-') {
+				return false;
+			}
+			int start = i;
+			while (i < length && (isAlpha(language.charAt(i)) == true
+					|| isDigit(language.charAt(i)) == true)) {
+				i++;
+			}
+			if (i == start) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param resource
+	 *            Blank node starting with _:
+	 * @return True if the label is a valid N-Triples blank node label
+	 */
+	private static boolean isBlankNodeLabel(String resource) {
+		int length = resource.length();
+		if (length == 2 || resource.charAt(length - 1) == '.') {
+			return false;
+		}
+		for (int i = 2; i < length; i++) {
+			char c = resource.charAt(i);
+			if (c == '_' || isDigit(c) == true || isAlpha(c) == true
+					|| (c >= 0x80 && Character.isLetterOrDigit(c) == true)) {
+				continue;
+			}
+			if (i == 2 || (c != '-' && c != '.')) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param c
+	 * @return True if c is an ASCII letter
+	 */
+	private static boolean isAlpha(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+
+	/**
+	 * @param c
+	 * @return True if c is an ASCII digit
+	 */
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * Append string, escaping characters not allowed in N-Triples IRIs or
+	 * literals. IRIs only allow numeric UCHAR escapes, literals use the short
+	 * forms where there is one. Unescaped runs are copied in bulk.
+	 * 
+	 * @param str
+	 * @param iri
+	 *            True if str is an IRI, false if it is a literal
+	 */
+	private void appendEscaped(String str, boolean iri) {
+		int length = str.length();
+		int start = 0;
+		for (int i = 0; i < length; i++) {
+			char c = str.charAt(i);
+			if (iri == true ? (c > 0x20 && c != '<' && c != '>' && c != '"'
+					&& c != '{' && c != '}' && c != '|' && c != '^'
+					&& c != '`' && c != '\\')
+					: (c >= 0x20 && c != '"' && c != '\\')) {
+				continue;
+			}
+			if (i > start) {
+				append(str, start, i);
+			}
+			start = i + 1;
+			if (iri == true) {
+				appendUnicodeEscape(c);
+				continue;
+			}
+			switch (c) {
+			case '"':
+				append('\\');
+				append('"');
+				break;
+			case '\\':
+				append('\\');
+				append('\\');
+				break;
+			case '\n':
+				append('\\');
+				append('n');
+				break;
+			case '\r':
+				append('\\');
+				append('r');
+				break;
+			case '\t':
+				append('\\');
+				append('t');
+				break;
+			default:
+				appendUnicodeEscape(c);
+				break;
+			}
+		}
+		if (start < length) {
+			append(str, start, length);
+		}
+	}
+
+	/**
+	 * @param c
+	 */
+	private void appendUnicodeEscape(char c) {
+		append('\\');
+		append('u');
+		append(HEX[(c >> 12) & 0xF]);
+		append(HEX[(c >> 8) & 0xF]);
+		append(HEX[(c >> 4) & 0xF]);
+		append(HEX[c & 0xF]);
+	}
+
+	/**
+	 * @param c
+	 */
+	private void append(char c) {
+		if (position == buffer.length) {
+			writeBufferUnchecked();
+		}
+		buffer[position++] = c;
+	}
+
+	/**
+	 * @param str
+	 */
+	private void append(String str) {
+		append(str, 0, str.length());
+	}
+
+	/**
+	 * @param str
+	 * @param start
+	 * @param end
+	 */
+	private void append(String str, int start, int end) {
+		while (start < end) {
+			if (position == buffer.length) {
+				writeBufferUnchecked();
+			}
+			int count = Math.min(end - start, buffer.length - position);
+			str.getChars(start, start + count, buffer, position);
+			position += count;
+			start += count;
+		}
+	}
+
+	/**
+	 * @throws IOException
+	 */
+	private void writeBuffer() throws IOException {
+		if (position > 0) {
+			writer.write(buffer, 0, position);
+			position = 0;
+		}
+	}
+
+	private void writeBufferUnchecked() {
+		try {
+			writeBuffer();
+		} catch (IOException exception) {
+			throw new IllegalStateException("writing triples failed",
+					exception);
+		}
+	}
+}
@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.triple;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import fi.tikesos.rdfa.core.datatype.Component;
+import fi.tikesos.rdfa.core.datatype.Language;
+import fi.tikesos.rdfa.core.datatype.Literal;
+
+/**
+ * TripleSink decorator implementing relative triple caching. While caching
+ * is on, triples with a component relative to the base are held back and
+ * passed on once caching stops and the base is final. Other triples are
+ * passed on immediately. RDFaParser wraps its triple sink with this, so
+ * sinks downstream can read component values as soon as they receive them.
+ * 
+ * @author ssakorho
+ * 
+ */
+public class RelativeTripleCachingSink implements DocumentTripleSink {
+	private TripleSink tripleSink;
+	private boolean caching = false;
+	private List<CachedTriple> cachedTriples = new ArrayList<CachedTriple>();
+
+	/**
+	 * Class constructor.
+	 * 
+	 * @param tripleSink
+	 *            The sink to pass triples on to
+	 */
+	public RelativeTripleCachingSink(TripleSink tripleSink) {
+		this.tripleSink = tripleSink;
+	}
+
+	/**
+	 * @return The decorated sink
+	 */
+	public TripleSink getTripleSink() {
+		return tripleSink;
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.DocumentTripleSink#startDocument()
+	 */
+	@Override
+	public void startDocument() {
+		if (tripleSink instanceof DocumentTripleSink) {
+			((DocumentTripleSink) tripleSink).startDocument();
+		}
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.DocumentTripleSink#endDocument()
+	 */
+	@Override
+	public void endDocument() {
+		try {
+			if (caching == true) {
+				stopRelativeTripleCaching();
+			}
+		} finally {
+			// End document also when parsing is stopped while passing on
+			if (tripleSink instanceof DocumentTripleSink) {
+				((DocumentTripleSink) tripleSink).endDocument();
+			}
+		}
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#startRelativeTripleCaching()
+	 */
+	@Override
+	public void startRelativeTripleCaching() {
+		caching = true;
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#stopRelativeTripleCaching()
+	 */
+	@Override
+	public void stopRelativeTripleCaching() {
+		caching = false;
+		try {
+			for (CachedTriple triple : cachedTriples) {
+				if (triple.literal == null) {
+					tripleSink.generateTriple(triple.subject,
+							triple.predicate, triple.object);
+				} else {
+					tripleSink.generateTripleLiteral(triple.subject,
+							triple.predicate, triple.literal,
+							triple.language, triple.object);
+				}
+			}
+		} finally {
+			// Also when parsing is stopped while passing on
+			cachedTriples.clear();
+		}
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTriple(fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component)
+	 */
+	@Override
+	public void generateTriple(Component subject, Component predicate,
+			Component object) {
+		if (caching == true
+				&& (subject.isAbsolute() == false
+						|| predicate.isAbsolute() == false || object
+						.isAbsolute() == false)) {
+			cachedTriples.add(new CachedTriple(subject, predicate, object,
+					null, null));
+		} else {
+			tripleSink.generateTriple(subject, predicate, object);
+		}
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTriple(java.lang.String,
+	 *      java.lang.String, java.lang.String)
+	 */
+	@Override
+	public void generateTriple(String subject, String predicate, String object) {
+		tripleSink.generateTriple(subject, predicate, object);
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTripleLiteral(fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Component,
+	 *      fi.tikesos.rdfa.core.datatype.Literal,
+	 *      fi.tikesos.rdfa.core.datatype.Language,
+	 *      fi.tikesos.rdfa.core.datatype.Component)
+	 */
+	@Override
+	public void generateTripleLiteral(Component subject, Component predicate,
+			Literal literal, Language language, Component datatype) {
+		if (caching == true
+				&& (subject.isAbsolute() == false
+						|| predicate.isAbsolute() == false || (datatype != null && datatype
+						.isAbsolute() == false))) {
+			// Literal content may be reused by the parser, keep a copy
+			cachedTriples.add(new CachedTriple(subject, predicate, datatype,
+					new Literal(literal.getValue(), literal.getLocation()),
+					language));
+		} else {
+			tripleSink.generateTripleLiteral(subject, predicate, literal,
+					language, datatype);
+		}
+	}
+
+	/**
+	 * @see fi.tikesos.rdfa.core.triple.TripleSink#generateTripleLiteral(java.lang.String,
+	 *      java.lang.String, java.lang.String, java.lang.String,
+	 *      java.lang.String)
+	 */
+	@Override
+	public void generateTripleLiteral(String subject, String predicate,
+			String literal, String language, String datatype) {
+		tripleSink.generateTripleLiteral(subject, predicate, literal,
+				language, datatype);
+	}
+
+	/**
+	 * Triple held back until caching stops. Object is the datatype for
+	 * literal triples.
+	 */
+	private static class CachedTriple {
+		private Component subject;
+		private Component predicate;
+		private Component object;
+		private Literal literal;
+		private Language language;
+
+		private CachedTriple(Component subject, Component predicate,
+				Component object, Literal literal, Language language) {
+			this.subject = subject;
+			this.predicate = predicate;
+			this.object = object;
+			this.literal = literal;
+			this.language = language;
+		}
+	}
+}
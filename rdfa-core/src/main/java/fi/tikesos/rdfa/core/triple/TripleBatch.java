@@ -0,0 +1,166 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.triple;
+
+/**
+ * TripleBatch is a reusable columnar buffer of triples. Object of a literal
+ * triple is the lexical value of the literal.
+ * 
+ * @author ssakorho
+ * 
+ */
+public class TripleBatch {
+	private String[] subjects;
+	private String[] predicates;
+	private String[] objects;
+	private String[] languages;
+	private String[] datatypes;
+	private boolean[] literals;
+	private int size;
+
+	/**
+	 * Class constructor.
+	 * 
+	 * @param capacity
+	 *            Maximum number of triples in batch
+	 */
+	public TripleBatch(int capacity) {
+		this.subjects = new String[capacity];
+		this.predicates = new String[capacity];
+		this.objects = new String[capacity];
+		this.languages = new String[capacity];
+		this.datatypes = new String[capacity];
+		this.literals = new boolean[capacity];
+		this.size = 0;
+	}
+
+	/**
+	 * @param subject
+	 * @param predicate
+	 * @param object
+	 */
+	public void add(String subject, String predicate, String object) {
+		subjects[size] = subject;
+		predicates[size] = predicate;
+		objects[size] = object;
+		languages[size] = null;
+		datatypes[size] = null;
+		literals[size] = false;
+		size++;
+	}
+
+	/**
+	 * @param subject
+	 * @param predicate
+	 * @param literal
+	 * @param language
+	 * @param datatype
+	 */
+	public void addLiteral(String subject, String predicate, String literal,
+			String language, String datatype) {
+		subjects[size] = subject;
+		predicates[size] = predicate;
+		objects[size] = literal;
+		languages[size] = language;
+		datatypes[size] = datatype;
+		literals[size] = true;
+		size++;
+	}
+
+	/**
+	 * @return Number of triples in batch
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return Maximum number of triples in batch
+	 */
+	public int capacity() {
+		return subjects.length;
+	}
+
+	/**
+	 * @return True if batch is full
+	 */
+	public boolean isFull() {
+		return size == subjects.length;
+	}
+
+	/**
+	 * @param index
+	 * @return Subject IRI or blank node
+	 */
+	public String getSubject(int index) {
+		return subjects[index];
+	}
+
+	/**
+	 * @param index
+	 * @return Predicate IRI
+	 */
+	public String getPredicate(int index) {
+		return predicates[index];
+	}
+
+	/**
+	 * @param index
+	 * @return Object IRI, blank node or lexical value of literal
+	 */
+	public String getObject(int index) {
+		return objects[index];
+	}
+
+	/**
+	 * @param index
+	 * @return True if object is a literal
+	 */
+	public boolean isLiteral(int index) {
+		return literals[index];
+	}
+
+	/**
+	 * @param index
+	 * @return Language of literal or null
+	 */
+	public String getLanguage(int index) {
+		return languages[index];
+	}
+
+	/**
+	 * @param index
+	 * @return Datatype of literal or null
+	 */
+	public String getDatatype(int index) {
+		return datatypes[index];
+	}
+
+	/**
+	 * Empty the batch
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			// Release references
+			subjects[i] = null;
+			predicates[i] = null;
+			objects[i] = null;
+			languages[i] = null;
+			datatypes[i] = null;
+		}
+		size = 0;
+	}
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.triple;
+
+/**
+ * TripleBatchSink interface
+ * 
+ * @author ssakorho
+ * 
+ */
+public interface TripleBatchSink {
+
+	/**
+	 * Accept a batch of triples. The batch is reused after this method
+	 * returns and must not be retained.
+	 * 
+	 * @param batch
+	 *            The triples
+	 */
+	public void accept(TripleBatch batch);
+}
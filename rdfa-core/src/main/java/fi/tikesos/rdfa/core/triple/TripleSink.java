@@ -20,7 +20,8 @@ import fi.tikesos.rdfa.core.datatype.Language;
 import fi.tikesos.rdfa.core.datatype.Literal;
 
 /**
- * TripleSink interface
+ * TripleSink interface. When the parser has an IRI dictionary, Component
+ * arguments carry their dictionary id available from Component#getId().
  * 
  * @author ssakorho
  * 
@@ -28,7 +29,9 @@ import fi.tikesos.rdfa.core.datatype.Literal;
 public interface TripleSink {
 
 	/**
-	 * Signals sink to start caching triples with relative IRI references
+	 * Signals sink to start caching triples with relative IRI references.
+	 * RDFaParser handles caching itself through RelativeTripleCachingSink,
+	 * so sinks given to the parser may ignore this.
 	 */
 	public void startRelativeTripleCaching();
 
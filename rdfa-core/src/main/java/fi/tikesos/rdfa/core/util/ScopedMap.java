@@ -0,0 +1,188 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.util;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * String to string map with nested scopes. A child scope stores only the
+ * mappings defined in it and falls back to its parent on lookup, so creating
+ * a scope does not copy the parent mappings. Scopes are never modified
+ * through their children.
+ * 
+ * Long scope chains are collapsed into a single scope to keep lookups cheap.
+ * The collapsed copy is made once and shared by all children of the scope.
+ * Optionally each scope maintains a lower-cased index of its keys for
+ * case-insensitive lookups.
+ * 
+ * @author ssakorho
+ * 
+ */
+public class ScopedMap {
+	private static final int MAX_CHAIN_LENGTH = 8;
+	private ScopedMap parent;
+	private Map<String, String> mappings;
+	// Lower-cased key to key
+	private Map<String, String> lowerCaseKeys;
+	private int chainLength;
+	// Flattened copy of this chain shared by children, made on demand
+	private ScopedMap collapsed;
+
+	/**
+	 * Class constructor for root scope.
+	 */
+	public ScopedMap() {
+		this(false);
+	}
+
+	/**
+	 * Class constructor for root scope.
+	 * 
+	 * @param caseInsensitive
+	 *            True if case-insensitive lookups are to be supported
+	 */
+	public ScopedMap(boolean caseInsensitive) {
+		this.parent = null;
+		this.mappings = new HashMap<String, String>();
+		this.lowerCaseKeys = caseInsensitive == true ? new HashMap<String, String>()
+				: null;
+		this.chainLength = 1;
+	}
+
+	/**
+	 * Class constructor for child scope.
+	 * 
+	 * @param parent
+	 *            The enclosing scope.
+	 */
+	private ScopedMap(ScopedMap parent) {
+		if (parent.chainLength >= MAX_CHAIN_LENGTH) {
+			// Collapse chain, once for all children of parent
+			if (parent.collapsed == null) {
+				parent.collapsed = new ScopedMap(parent.lowerCaseKeys != null);
+				parent.collect(parent.collapsed.mappings,
+						parent.collapsed.lowerCaseKeys);
+			}
+			parent = parent.collapsed;
+		}
+		this.parent = parent;
+		this.mappings = new HashMap<String, String>(4);
+		this.lowerCaseKeys = parent.lowerCaseKeys != null ? new HashMap<String, String>(
+				4) : null;
+		this.chainLength = parent.chainLength + 1;
+	}
+
+	/**
+	 * @return A new scope enclosed by this scope.
+	 */
+	public ScopedMap createChild() {
+		return new ScopedMap(this);
+	}
+
+	/**
+	 * @param key
+	 * @return The value mapped to key in this or enclosing scope or null.
+	 */
+	public String get(String key) {
+		ScopedMap scope = this;
+		do {
+			String value = scope.mappings.get(key);
+			if (value != null) {
+				return value;
+			}
+			scope = scope.parent;
+		} while (scope != null);
+		return null;
+	}
+
+	/**
+	 * Case-insensitive lookup. If a scope contains several keys differing only
+	 * in case, the one mapped first wins.
+	 * 
+	 * @param key
+	 * @return The value mapped to a key equal to key ignoring case or null.
+	 * @throws UnsupportedOperationException
+	 *             if the map was not created case-insensitive
+	 */
+	public String getIgnoreCase(String key) {
+		if (lowerCaseKeys == null) {
+			throw new UnsupportedOperationException(
+					"Case-insensitive lookups not enabled");
+		}
+		String lowerCaseKey = key.toLowerCase(Locale.ENGLISH);
+		ScopedMap scope = this;
+		do {
+			String registeredKey = scope.lowerCaseKeys.get(lowerCaseKey);
+			if (registeredKey != null) {
+				return scope.mappings.get(registeredKey);
+			}
+			scope = scope.parent;
+		} while (scope != null);
+		return null;
+	}
+
+	/**
+	 * @param key
+	 * @param value
+	 */
+	public void put(String key, String value) {
+		collapsed = null;
+		mappings.put(key, value);
+		if (lowerCaseKeys != null) {
+			String lowerCaseKey = key.toLowerCase(Locale.ENGLISH);
+			if (lowerCaseKeys.containsKey(lowerCaseKey) == false) {
+				lowerCaseKeys.put(lowerCaseKey, key);
+			}
+		}
+	}
+
+	/**
+	 * @param key
+	 * @return True if key is mapped in this or enclosing scope.
+	 */
+	public boolean containsKey(String key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * @return Mappings visible in this scope.
+	 */
+	public Map<String, String> toMap() {
+		Map<String, String> map = new HashMap<String, String>();
+		collect(map, null);
+		return map;
+	}
+
+	/**
+	 * Copy visible mappings into map, inner scopes overriding outer ones.
+	 * 
+	 * @param map
+	 * @param lowerCaseMap
+	 *            The lower-cased key index or null
+	 */
+	private void collect(Map<String, String> map,
+			Map<String, String> lowerCaseMap) {
+		if (parent != null) {
+			parent.collect(map, lowerCaseMap);
+		}
+		map.putAll(mappings);
+		if (lowerCaseMap != null) {
+			lowerCaseMap.putAll(lowerCaseKeys);
+		}
+	}
+}
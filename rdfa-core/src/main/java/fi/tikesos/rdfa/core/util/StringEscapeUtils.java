@@ -15,78 +15,73 @@
  */
 package fi.tikesos.rdfa.core.util;
 
+/**
+ * XML escaping of &lt;, &gt;, &quot;, &amp; and &apos;. Input is scanned for
+ * the next character to escape and the run before it is appended in one
+ * call.
+ * 
+ * @author ssakorho
+ * 
+ */
 public class StringEscapeUtils {
-	public static void escapeXML(char []input, int start, int length, StringBuffer output) {
-		for (int i = 0;i < length;i++) {
-			char c = input[start + i];
-			switch (c) {
-			case '<':
-				// &lt;
-				output.append("&lt;");
-				break;
-			case '>':
-				// &gt;
-				output.append("&gt;");
-				break;
-			case '"':
-				// &quot;
-				output.append("&quot;");
-				break;
-			case '&':
-				// &amp;
-				output.append("&amp;");
-				break;
-			case '\'':
-				// &apos;
-				output.append("&apos;");
-				break;
-			default:
-				// others
-				output.append(c);
-				break;
+	// Escape sequences indexed by character, all escaped characters are <= '>'
+	private static final String[] ESCAPES = new String['>' + 1];
+	static {
+		ESCAPES['<'] = "&lt;";
+		ESCAPES['>'] = "&gt;";
+		ESCAPES['"'] = "&quot;";
+		ESCAPES['&'] = "&amp;";
+		ESCAPES['\''] = "&apos;";
+	}
+
+	public static void escapeXML(char[] input, int start, int length,
+			StringBuilder output) {
+		int end = start + length;
+		int run = start;
+		for (int i = start; i < end; i++) {
+			char c = input[i];
+			if (c <= '>' && ESCAPES[c] != null) {
+				output.append(input, run, i - run);
+				output.append(ESCAPES[c]);
+				run = i + 1;
 			}
 		}
+		output.append(input, run, end - run);
 	}
-	
-	public static String escapeXML(char []input, int start, int length) {
-		StringBuffer output = new StringBuffer(length + 32);
+
+	public static String escapeXML(char[] input, int start, int length) {
+		StringBuilder output = new StringBuilder(length + 32);
+		escapeXML(input, start, length, output);
 		return output.toString();
 	}
-	
-	public static void escapeXML(String input, StringBuffer output) {
-		for (int i = 0;i < input.length();i++) {
+
+	public static void escapeXML(String input, StringBuilder output) {
+		int end = input.length();
+		int run = 0;
+		for (int i = 0; i < end; i++) {
 			char c = input.charAt(i);
-			switch (c) {
-			case '<':
-				// &lt;
-				output.append("&lt;");
-				break;
-			case '>':
-				// &gt;
-				output.append("&gt;");
-				break;
-			case '"':
-				// &quot;
-				output.append("&quot;");
-				break;
-			case '&':
-				// &amp;
-				output.append("&amp;");
-				break;
-			case '\'':
-				// &apos;
-				output.append("&apos;");
-				break;
-			default:
-				// others
-				output.append(c);
-				break;
+			if (c <= '>' && ESCAPES[c] != null) {
+				output.append(input, run, i);
+				output.append(ESCAPES[c]);
+				run = i + 1;
 			}
 		}
+		output.append(input, run, end);
 	}
-	
+
 	public static String escapeXML(String input) {
-		StringBuffer output = new StringBuffer(input.length() + 32);
+		int i = 0;
+		for (int length = input.length(); i < length; i++) {
+			char c = input.charAt(i);
+			if (c <= '>' && ESCAPES[c] != null) {
+				break;
+			}
+		}
+		if (i == input.length()) {
+			// Nothing to escape
+			return input;
+		}
+		StringBuilder output = new StringBuilder(input.length() + 32);
 		escapeXML(input, output);
 		return output.toString();
 	}
@@ -0,0 +1,111 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.datatype;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author ssakorho
+ * 
+ */
+public class IRIResolverTest {
+	private static final String BASE = "http://a/b/c/d;p?q";
+
+	/**
+	 * Reference resolution examples of RFC 3986 section 5.4
+	 */
+	private static final String[][] EXAMPLES = {
+			// Normal examples, section 5.4.1
+			{ "g:h", "g:h" }, { "g", "http://a/b/c/g" },
+			{ "./g", "http://a/b/c/g" }, { "g/", "http://a/b/c/g/" },
+			{ "/g", "http://a/g" }, { "//g", "http://g" },
+			{ "?y", "http://a/b/c/d;p?y" }, { "g?y", "http://a/b/c/g?y" },
+			{ "#s", "http://a/b/c/d;p?q#s" },
+			{ "g#s", "http://a/b/c/g#s" },
+			{ "g?y#s", "http://a/b/c/g?y#s" },
+			{ ";x", "http://a/b/c/;x" }, { "g;x", "http://a/b/c/g;x" },
+			{ "g;x?y#s", "http://a/b/c/g;x?y#s" },
+			{ "", "http://a/b/c/d;p?q" }, { ".", "http://a/b/c/" },
+			{ "./", "http://a/b/c/" }, { "..", "http://a/b/" },
+			{ "../", "http://a/b/" }, { "../g", "http://a/b/g" },
+			{ "../..", "http://a/" }, { "../../", "http://a/" },
+			{ "../../g", "http://a/g" },
+			// Abnormal examples, section 5.4.2
+			{ "../../../g", "http://a/g" },
+			{ "../../../../g", "http://a/g" }, { "/./g", "http://a/g" },
+			{ "/../g", "http://a/g" }, { "g.", "http://a/b/c/g." },
+			{ ".g", "http://a/b/c/.g" }, { "g..", "http://a/b/c/g.." },
+			{ "..g", "http://a/b/c/..g" },
+			{ "./../g", "http://a/b/g" }, { "./g/.", "http://a/b/c/g/" },
+			{ "g/./h", "http://a/b/c/g/h" },
+			{ "g/../h", "http://a/b/c/h" },
+			{ "g;x=1/./y", "http://a/b/c/g;x=1/y" },
+			{ "g;x=1/../y", "http://a/b/c/y" },
+			{ "g?y/./x", "http://a/b/c/g?y/./x" },
+			{ "g?y/../x", "http://a/b/c/g?y/../x" },
+			{ "g#s/./x", "http://a/b/c/g#s/./x" },
+			{ "g#s/../x", "http://a/b/c/g#s/../x" },
+			// Strict parser
+			{ "http:g", "http:g" } };
+
+	@Test
+	public void rfc3986Examples() {
+		for (String[] example : EXAMPLES) {
+			Assert.assertEquals(example[0], example[1], IRIResolver.resolve(
+					BASE, example[0]));
+		}
+	}
+
+	@Test
+	public void baseURIResolvesExamples() throws URISyntaxException {
+		BaseURI baseURI = new BaseURI(BASE);
+		for (String[] example : EXAMPLES) {
+			Assert.assertEquals(example[0], example[1], baseURI
+					.resolve(example[0]));
+		}
+	}
+
+	@Test
+	public void dotSegmentsAboveRootAreRemoved() {
+		// java.net.URI keeps the leading dot segments
+		Assert.assertEquals("http://a/../../x", URI.create("http://a/")
+				.resolve("../../x").toString());
+		Assert.assertEquals("http://a/x", IRIResolver.resolve("http://a/",
+				"../../x"));
+	}
+
+	@Test
+	public void emptyPathIsAnchoredToAuthority() {
+		Assert.assertEquals("http://a/g", IRIResolver.resolve("http://a",
+				"g"));
+		Assert.assertEquals("http://a?y", IRIResolver.resolve("http://a",
+				"?y"));
+	}
+
+	@Test
+	public void setURIResolvesAgainstPreviousBase() throws URISyntaxException {
+		BaseURI baseURI = new BaseURI("http://example.org/a/b");
+		Assert.assertEquals("http://example.org/a/c", baseURI.resolve("c"));
+		baseURI.setURI("../d/e#fragment");
+		Assert.assertEquals("http://example.org/d/e", baseURI.getValue());
+		Assert.assertEquals("http://example.org/d/c", baseURI.resolve("c"));
+	}
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.datatype;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author ssakorho
+ * 
+ */
+public class IRIValidatorTest {
+	private static final String[] ABSOLUTE = { "http://example.org/",
+			"http://example.org/a/b;c?d=e&f#g", "urn:isbn:0451450523",
+			"mailto:someone@example.org", "http://user@[::1]:8080/",
+			"http://[2001:db8::7]/c", "http://[::ffff:192.0.2.1]/",
+			"http://example.org/%C3%A4", "http://example.org/\u00e4",
+			"foo+bar.baz-1:x" };
+
+	private static final String[] RELATIVE = { "", "a", "./a", "../a",
+			"/a/b", "//example.org/a", "?q", "#f", "a%20b" };
+
+	private static final String[] INVALID = { ":a", "1a:b", "a b",
+			"http://example.org/a b", "http://example.org/%2", "a%zz",
+			"http://[::1/", "http://[1:2]/", "http://x]/", "http:#f",
+			"http://example.org/<a>", "http://example.org/\u00a0",
+			"http://example.org/{a}", "http://[::1]x/", "http://[::1]:8a/" };
+
+	@Test
+	public void absolute() throws URISyntaxException {
+		for (String iri : ABSOLUTE) {
+			Assert.assertTrue(iri, IRIValidator.isAbsolute(iri));
+			Assert.assertTrue(iri, new URI(iri).isAbsolute());
+		}
+		Assert.assertEquals(4, IRIValidator.validate("http://example.org/"));
+		Assert.assertEquals(3, IRIValidator.validate("urn:isbn:0451450523"));
+	}
+
+	@Test
+	public void relative() throws URISyntaxException {
+		for (String iri : RELATIVE) {
+			Assert.assertFalse(iri, IRIValidator.isAbsolute(iri));
+			Assert.assertFalse(iri, new URI(iri).isAbsolute());
+		}
+	}
+
+	@Test
+	public void invalid() {
+		for (String iri : INVALID) {
+			try {
+				IRIValidator.validate(iri);
+				Assert.fail("Accepted " + iri);
+			} catch (URISyntaxException exception) {
+				Assert.assertEquals(iri, exception.getInput());
+			}
+			try {
+				new URI(iri);
+				Assert.fail("java.net.URI accepted " + iri);
+			} catch (URISyntaxException exception) {
+				// Validator agrees with java.net.URI
+			}
+		}
+	}
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.parser;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import fi.tikesos.rdfa.core.triple.CollectingTripleSink;
+
+/**
+ * @author ssakorho
+ * 
+ */
+public class DeepNestingTest {
+	/**
+	 * More passed through levels than the initial pool sizes
+	 */
+	private static final int LEVELS = 100;
+
+	private static String nested() {
+		// Plain elements are passed through below an element with RDFa
+		StringBuilder body = new StringBuilder("<div about=\"http://e/s\">");
+		for (int i = 0; i < LEVELS; i++) {
+			body.append("<div>");
+		}
+		body.append("<span property=\"http://e/p\">v</span>");
+		for (int i = 0; i < LEVELS; i++) {
+			body.append("</div>");
+		}
+		body.append("</div>");
+		return TestParsers.document("", body.toString());
+	}
+
+	private static void check(CollectingTripleSink collector, int status) {
+		Assert.assertEquals(RDFaParser.PARSING_COMPLETED, status);
+		Assert.assertEquals(1, collector.getTriples().size());
+		Assert.assertEquals("<http://e/s> <http://e/p> \"v\"",
+				collector.getTriples().get(0));
+	}
+
+	@Test
+	public void passThroughSAX() throws Exception {
+		CollectingTripleSink collector = new CollectingTripleSink();
+		check(collector, TestParsers.parseSAX(nested(), collector, null));
+	}
+
+	@Test
+	public void passThroughDOM() throws Exception {
+		CollectingTripleSink collector = new CollectingTripleSink();
+		check(collector, TestParsers.parseDOM(nested(), collector, null));
+	}
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.parser;
+
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+
+import fi.tikesos.rdfa.core.exception.NullErrorHandler;
+import fi.tikesos.rdfa.core.parser.sax.SAXRDFaParser;
+import fi.tikesos.rdfa.core.triple.CollectingTripleSink;
+import fi.tikesos.rdfa.core.triple.TripleSink;
+
+/**
+ * @author ssakorho
+ * 
+ */
+public class ExtractionFilterTest {
+	private static final String RDF_TYPE = "http://www.w3.org/1999/02/22-rdf-syntax-ns#type";
+
+	/**
+	 * SAXRDFaParser recording whether a literal is being collected when the
+	 * element with id probe begins
+	 */
+	private static class ProbingParser extends SAXRDFaParser {
+		private Boolean collectingAtProbe = null;
+
+		public ProbingParser(TripleSink tripleSink) throws Exception {
+			super(TestParsers.BASE, tripleSink, null, new NullErrorHandler(),
+					RDFaParser.XHTML_RDFA);
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName,
+				Attributes attributes) throws SAXException {
+			super.startElement(uri, localName, qName, attributes);
+			if ("probe".equals(attributes.getValue("id")) == true) {
+				collectingAtProbe = ((RDFaParser) this).isCollectingLiteral();
+			}
+		}
+	}
+
+	private static List<String> parse(String body,
+			ExtractionFilter extractionFilter, boolean sax) throws Exception {
+		String xml = TestParsers.document("", body);
+		CollectingTripleSink collector = new CollectingTripleSink();
+		int status = sax == true ? TestParsers.parseSAX(xml, collector,
+				extractionFilter) : TestParsers.parseDOM(xml, collector,
+				extractionFilter);
+		Assert.assertEquals(RDFaParser.PARSING_COMPLETED, status);
+		return collector.getTriples();
+	}
+
+	@Test
+	public void allowListDropsOtherPredicates() throws Exception {
+		ExtractionFilter filter = new ExtractionFilter();
+		filter.allowPredicate("http://e/allowed");
+		String body = "<div about=\"http://e/s\">"
+				+ "<span property=\"http://e/allowed\">a</span>"
+				+ "<span property=\"http://e/other\">b</span>"
+				+ "<a rel=\"http://e/allowed\" href=\"http://e/o1\">o1</a>"
+				+ "<a rel=\"http://e/other\" href=\"http://e/o2\">o2</a>"
+				+ "<div rel=\"http://e/other\">"
+				+ "<span about=\"http://e/o3\">o3</span></div></div>";
+		for (boolean sax : new boolean[] { true, false }) {
+			List<String> triples = parse(body, filter, sax);
+			Assert.assertEquals(2, triples.size());
+			Assert.assertEquals("<http://e/s> <http://e/allowed> \"a\"",
+					triples.get(0));
+			Assert.assertEquals("<http://e/s> <http://e/allowed> <http://e/o1>",
+					triples.get(1));
+		}
+	}
+
+	@Test
+	public void denyListOnTypes() throws Exception {
+		ExtractionFilter filter = new ExtractionFilter();
+		filter.denyType("http://e/Denied");
+		String body = "<div about=\"http://e/s\" typeof=\"http://e/Denied\">"
+				+ "<span about=\"http://e/t\" typeof=\"http://e/Kept\">t</span>"
+				+ "</div>";
+		for (boolean sax : new boolean[] { true, false }) {
+			List<String> triples = parse(body, filter, sax);
+			Assert.assertEquals(1, triples.size());
+			Assert.assertEquals("<http://e/t> <" + RDF_TYPE
+					+ "> <http://e/Kept>", triples.get(0));
+		}
+	}
+
+	@Test
+	public void rejectedPropertiesCollectNoLiteral() throws Exception {
+		ExtractionFilter filter = new ExtractionFilter();
+		filter.denyPredicate("http://e/denied");
+		String body = "<p xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\""
+				+ " about=\"http://e/s\" property=\"http://e/denied\">"
+				+ "<em id=\"probe\">a</em>"
+				+ "<span property=\"http://e/xml\" datatype=\"rdf:XMLLiteral\">"
+				+ "<b>b</b></span></p>";
+		String xml = TestParsers.document("", body);
+		// Without filter the text is collected
+		ProbingParser parser = new ProbingParser(new CollectingTripleSink());
+		TestParsers.parseSAX(xml, parser);
+		Assert.assertEquals(Boolean.TRUE, parser.collectingAtProbe);
+
+		CollectingTripleSink collector = new CollectingTripleSink();
+		parser = new ProbingParser(collector);
+		parser.setExtractionFilter(filter);
+		Assert.assertEquals(RDFaParser.PARSING_COMPLETED, TestParsers
+				.parseSAX(xml, parser));
+		Assert.assertEquals(Boolean.FALSE, parser.collectingAtProbe);
+		Assert.assertEquals(1, collector.getTriples().size());
+		String triple = collector.getTriples().get(0);
+		Assert.assertTrue(triple, triple
+				.startsWith("<http://e/s> <http://e/xml> \"<b "));
+		Assert.assertTrue(triple, triple.endsWith(">b</b>\"^^<"
+				+ "http://www.w3.org/1999/02/22-rdf-syntax-ns#XMLLiteral>"));
+	}
+
+	@Test
+	public void relativePredicatePasses() throws Exception {
+		ExtractionFilter filter = new ExtractionFilter();
+		filter.allowPredicate("http://e/allowed");
+		String body = "<div xmlns:r=\"rel/\" about=\"http://e/s\">"
+				+ "<span property=\"r:p\">a</span>"
+				+ "<span property=\"http://e/other\">b</span></div>";
+		for (boolean sax : new boolean[] { true, false }) {
+			List<String> triples = parse(body, filter, sax);
+			Assert.assertEquals(1, triples.size());
+			Assert.assertEquals("<http://e/s> <" + TestParsers.BASE
+					+ "rel/p> \"a\"", triples.get(0));
+		}
+	}
+}
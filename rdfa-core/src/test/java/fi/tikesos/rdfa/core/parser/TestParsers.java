@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.parser;
+
+import java.io.StringReader;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.XMLReaderFactory;
+
+import fi.tikesos.rdfa.core.exception.NullErrorHandler;
+import fi.tikesos.rdfa.core.parser.dom.DOMRDFaParser;
+import fi.tikesos.rdfa.core.parser.sax.SAXRDFaParser;
+import fi.tikesos.rdfa.core.triple.TripleSink;
+
+/**
+ * Runs XHTML+RDFa documents held in strings through the SAX and DOM
+ * drivers.
+ * 
+ * @author ssakorho
+ * 
+ */
+public class TestParsers {
+	public static final String BASE = "http://example.org/";
+
+	private TestParsers() {
+	}
+
+	/**
+	 * @param xml
+	 * @param tripleSink
+	 * @param extractionFilter
+	 *            The filter or null
+	 * @return Status of SAXRDFaParser
+	 */
+	public static int parseSAX(String xml, TripleSink tripleSink,
+			ExtractionFilter extractionFilter) throws Exception {
+		SAXRDFaParser parser = new SAXRDFaParser(BASE, tripleSink, null,
+				new NullErrorHandler(), RDFaParser.XHTML_RDFA);
+		parser.setExtractionFilter(extractionFilter);
+		return parseSAX(xml, parser);
+	}
+
+	/**
+	 * @param xml
+	 * @param parser
+	 *            Configured SAXRDFaParser
+	 * @return Status of SAXRDFaParser
+	 */
+	public static int parseSAX(String xml, SAXRDFaParser parser)
+			throws Exception {
+		XMLReader reader = XMLReaderFactory.createXMLReader();
+		reader.setFeature("http://xml.org/sax/features/namespace-prefixes",
+				Boolean.TRUE);
+		reader.setContentHandler(parser);
+		try {
+			reader.parse(new InputSource(new StringReader(xml)));
+		} catch (SAXException exception) {
+			if (parser.getStatus() != RDFaParser.PARSING_STOPPED) {
+				throw exception;
+			}
+		}
+		return parser.getStatus();
+	}
+
+	/**
+	 * @param xml
+	 * @param tripleSink
+	 * @param extractionFilter
+	 *            The filter or null
+	 * @return Status returned by DOMRDFaParser
+	 */
+	public static int parseDOM(String xml, TripleSink tripleSink,
+			ExtractionFilter extractionFilter) throws Exception {
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		Document document = factory.newDocumentBuilder().parse(
+				new InputSource(new StringReader(xml)));
+		return DOMRDFaParser.parse(document, BASE, tripleSink, null,
+				new NullErrorHandler(), RDFaParser.XHTML_RDFA, null,
+				extractionFilter);
+	}
+
+	/**
+	 * @param head
+	 *            Content of head after title
+	 * @param body
+	 *            Content of body
+	 * @return XHTML document
+	 */
+	public static String document(String head, String body) {
+		return "<html xmlns=\"http://www.w3.org/1999/xhtml\">"
+				+ "<head><title>Test</title>" + head + "</head><body>" + body
+				+ "</body></html>";
+	}
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.triple;
+
+import java.io.StringReader;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+import fi.tikesos.rdfa.core.exception.NullErrorHandler;
+import fi.tikesos.rdfa.core.parser.RDFaParser;
+import fi.tikesos.rdfa.core.parser.dom.DOMRDFaParser;
+
+/**
+ * @author ssakorho
+ * 
+ */
+public class AsyncTripleSinkTest {
+	private static final String DOCUMENT = "<html xmlns=\"http://www.w3.org/1999/xhtml\">"
+			+ "<head><title>Async</title></head><body>"
+			+ "<div about=\"http://example.org/s\">"
+			+ "<span property=\"http://example.org/p\">1</span>"
+			+ "<span property=\"http://example.org/p\">2</span>"
+			+ "<span property=\"http://example.org/p\">3</span>"
+			+ "<span property=\"http://example.org/p\">4</span>"
+			+ "<span property=\"http://example.org/p\">5</span>"
+			+ "</div></body></html>";
+
+	private static Document parseXML(String xml) throws Exception {
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		return factory.newDocumentBuilder().parse(
+				new InputSource(new StringReader(xml)));
+	}
+
+	@Test
+	public void deliversTriples() throws Exception {
+		CollectingTripleSink collector = new CollectingTripleSink();
+		AsyncTripleSink async = new AsyncTripleSink(collector, 2);
+		int status = DOMRDFaParser.parse(parseXML(DOCUMENT),
+				"http://example.org/", async, null, new NullErrorHandler(),
+				RDFaParser.XHTML_RDFA);
+		async.close();
+		Assert.assertEquals(RDFaParser.PARSING_COMPLETED, status);
+		Assert.assertEquals(5, collector.getTriples().size());
+		Assert.assertEquals(
+				"<http://example.org/s> <http://example.org/p> \"3\"",
+				collector.getTriples().get(2));
+		Assert.assertEquals(1, collector.getDocumentsEnded());
+	}
+
+	@Test
+	public void stopCrossesConsumerThread() throws Exception {
+		CollectingTripleSink collector = new CollectingTripleSink();
+		AsyncTripleSink async = new AsyncTripleSink(new LimitingTripleSink(
+				collector, 2), 2);
+		for (int i = 1; i <= 2; i++) {
+			int status = DOMRDFaParser.parse(parseXML(DOCUMENT),
+					"http://example.org/", async, null,
+					new NullErrorHandler(), RDFaParser.XHTML_RDFA);
+			Assert.assertEquals(RDFaParser.PARSING_STOPPED, status);
+			Assert.assertEquals(2 * i, collector.getTriples().size());
+			Assert.assertEquals(i, collector.getDocumentsStarted());
+			Assert.assertEquals(i, collector.getDocumentsEnded());
+		}
+		async.close();
+	}
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.triple;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author ssakorho
+ * 
+ */
+public class BinaryTripleReaderTest {
+	private static final String EX = "http://example.org/";
+
+	/**
+	 * Generate two documents of plain triples and literals
+	 */
+	private static void generate(DocumentTripleSink sink) {
+		StringBuilder longLiteral = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			longLiteral.append((char) ('a' + i % 26));
+		}
+		for (int d = 0; d < 2; d++) {
+			sink.startDocument();
+			for (int i = 0; i < 20; i++) {
+				sink.generateTriple(EX + "s" + d, EX + "p", EX + "o" + i);
+				sink.generateTriple("_:b" + i, EX + "q", EX + "s" + d);
+			}
+			sink.generateTripleLiteral(EX + "s" + d, EX + "label",
+					"caf\u00e9 " + d, "fr", null);
+			sink.generateTripleLiteral(EX + "s" + d, EX + "label",
+					"\u65e5\u672c", "ja-JP", null);
+			sink.generateTripleLiteral(EX + "s" + d, EX + "count",
+					String.valueOf(d), null,
+					"http://www.w3.org/2001/XMLSchema#integer");
+			sink.generateTripleLiteral(EX + "s" + d, EX + "plain", "", null,
+					null);
+			sink.generateTripleLiteral(EX + "s" + d, EX + "long",
+					longLiteral.toString(), null, null);
+			sink.endDocument();
+		}
+	}
+
+	private static byte[] write(int maxTerms) {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		BinaryTripleWriterSink writer = new BinaryTripleWriterSink(output,
+				maxTerms);
+		generate(writer);
+		writer.close();
+		return output.toByteArray();
+	}
+
+	private static CollectingTripleSink replay(byte[] stream)
+			throws IOException {
+		CollectingTripleSink collector = new CollectingTripleSink();
+		BinaryTripleReader reader = new BinaryTripleReader(
+				new ByteArrayInputStream(stream));
+		long count = reader.replay(collector);
+		Assert.assertEquals(collector.getTriples().size(), count);
+		return collector;
+	}
+
+	private static void assertRoundTrip(byte[] stream) throws IOException {
+		CollectingTripleSink expected = new CollectingTripleSink();
+		generate(expected);
+		CollectingTripleSink actual = replay(stream);
+		Assert.assertEquals(expected.getTriples(), actual.getTriples());
+		Assert.assertEquals(2, actual.getDocumentsStarted());
+		Assert.assertEquals(2, actual.getDocumentsEnded());
+	}
+
+	@Test
+	public void roundTrip() throws IOException {
+		assertRoundTrip(write(BinaryTripleWriterSink.DEFAULT_MAX_TERMS));
+	}
+
+	@Test
+	public void roundTripAcrossResets() throws IOException {
+		byte[] stream = write(8);
+		// Terms are written again after each reset
+		Assert.assertTrue(stream.length > write(
+				BinaryTripleWriterSink.DEFAULT_MAX_TERMS).length);
+		assertRoundTrip(stream);
+	}
+
+	@Test
+	public void badMagic() {
+		byte[] stream = write(BinaryTripleWriterSink.DEFAULT_MAX_TERMS);
+		stream[0] = 'X';
+		try {
+			replay(stream);
+			Assert.fail("Expected IOException");
+		} catch (IOException exception) {
+			// Expected
+		}
+	}
+
+	@Test
+	public void badVersion() {
+		byte[] stream = write(BinaryTripleWriterSink.DEFAULT_MAX_TERMS);
+		stream[BinaryTripleWriterSink.MAGIC.length]++;
+		try {
+			replay(stream);
+			Assert.fail("Expected IOException");
+		} catch (IOException exception) {
+			// Expected
+		}
+	}
+}
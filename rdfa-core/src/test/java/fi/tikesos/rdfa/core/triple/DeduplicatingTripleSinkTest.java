@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.triple;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author ssakorho
+ * 
+ */
+public class DeduplicatingTripleSinkTest {
+	private static final String S = "http://example.org/s";
+	private static final String P = "http://example.org/p";
+
+	/**
+	 * Pass count distinct triples twice within each of documents documents
+	 */
+	private static CollectingTripleSink run(boolean bloom, int documents,
+			int count) {
+		CollectingTripleSink collector = new CollectingTripleSink();
+		DeduplicatingTripleSink sink = new DeduplicatingTripleSink(collector,
+				DeduplicatingTripleSink.DEFAULT_MEMORY_LIMIT, bloom);
+		for (int d = 0; d < documents; d++) {
+			sink.startDocument();
+			for (int repeat = 0; repeat < 2; repeat++) {
+				for (int i = 0; i < count; i++) {
+					sink.generateTriple(S, P, "http://example.org/o" + i);
+					sink.generateTripleLiteral(S, P, "o" + i, null, null);
+				}
+			}
+			sink.endDocument();
+		}
+		Assert.assertEquals(2 * documents * count, sink.getSuppressedCount());
+		return collector;
+	}
+
+	@Test
+	public void exactDropsDuplicatesPerDocument() {
+		// More documents than there are epoch tags
+		CollectingTripleSink collector = run(false, 600, 5);
+		Assert.assertEquals(600 * 10, collector.getTriples().size());
+		Assert.assertEquals(600, collector.getDocumentsEnded());
+	}
+
+	@Test
+	public void exactKeepsGrownTable() {
+		CollectingTripleSink collector = run(false, 3, 5000);
+		Assert.assertEquals(3 * 10000, collector.getTriples().size());
+	}
+
+	@Test
+	public void bloomDropsDuplicatesPerDocument() {
+		CollectingTripleSink collector = run(true, 300, 5);
+		Assert.assertEquals(300 * 10, collector.getTriples().size());
+	}
+
+	@Test
+	public void bloomClearsAfterLargeDocument() {
+		CollectingTripleSink collector = run(true, 3, 100000);
+		Assert.assertEquals(3 * 200000, collector.getTriples().size());
+	}
+
+	@Test
+	public void memoryLimitStopsRemembering() {
+		CollectingTripleSink collector = new CollectingTripleSink();
+		DeduplicatingTripleSink sink = new DeduplicatingTripleSink(collector,
+				64, false);
+		for (int repeat = 0; repeat < 2; repeat++) {
+			for (int i = 0; i < 10; i++) {
+				sink.generateTriple(S, P, "http://example.org/o" + i);
+			}
+		}
+		// Eight slots remember four triples at most
+		Assert.assertEquals(4, sink.getSuppressedCount());
+		Assert.assertEquals(16, collector.getTriples().size());
+	}
+}
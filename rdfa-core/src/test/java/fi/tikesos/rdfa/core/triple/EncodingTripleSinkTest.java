@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.triple;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+import fi.tikesos.rdfa.core.datatype.IRIDictionary;
+import fi.tikesos.rdfa.core.exception.NullErrorHandler;
+import fi.tikesos.rdfa.core.parser.RDFaParser;
+import fi.tikesos.rdfa.core.parser.dom.DOMRDFaParser;
+
+/**
+ * @author ssakorho
+ * 
+ */
+public class EncodingTripleSinkTest {
+	private static final String DOCUMENT = "<html xmlns=\"http://www.w3.org/1999/xhtml\">"
+			+ "<head><title>Encoding</title></head><body>"
+			+ "<div about=\"http://example.org/s\">"
+			+ "<a rel=\"http://example.org/p\" href=\"http://example.org/o\">o</a>"
+			+ "</div></body></html>";
+
+	/**
+	 * Records triples as strings materialized from the dictionary
+	 */
+	private static class RecordingSink implements EncodedTripleSink {
+		private IRIDictionary iriDictionary;
+		private List<String> triples = new ArrayList<String>();
+
+		public void setIRIDictionary(IRIDictionary iriDictionary) {
+			this.iriDictionary = iriDictionary;
+		}
+
+		public void generateTriple(int subject, int predicate, int object) {
+			triples.add(iriDictionary.getIRI(subject) + " "
+					+ iriDictionary.getIRI(predicate) + " "
+					+ iriDictionary.getIRI(object));
+		}
+
+		public void generateTripleLiteral(int subject, int predicate,
+				String literal, String language, int datatype) {
+			triples.add(iriDictionary.getIRI(subject) + " "
+					+ iriDictionary.getIRI(predicate) + " \"" + literal + "\"");
+		}
+	}
+
+	private static int parse(EncodingTripleSink sink,
+			IRIDictionary iriDictionary) throws Exception {
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		Document document = factory.newDocumentBuilder().parse(
+				new InputSource(new StringReader(DOCUMENT)));
+		return DOMRDFaParser.parse(document, "http://example.org/", sink,
+				null, new NullErrorHandler(), RDFaParser.XHTML_RDFA,
+				iriDictionary);
+	}
+
+	@Test
+	public void sharedDictionary() throws Exception {
+		IRIDictionary iriDictionary = new IRIDictionary();
+		RecordingSink recorder = new RecordingSink();
+		EncodingTripleSink sink = new EncodingTripleSink(recorder,
+				iriDictionary);
+		Assert.assertEquals(RDFaParser.PARSING_COMPLETED, parse(sink,
+				iriDictionary));
+		Assert.assertEquals(1, recorder.triples.size());
+		Assert.assertEquals(
+				"http://example.org/s http://example.org/p http://example.org/o",
+				recorder.triples.get(0));
+	}
+
+	@Test
+	public void parserWithoutDictionary() throws Exception {
+		RecordingSink recorder = new RecordingSink();
+		EncodingTripleSink sink = new EncodingTripleSink(recorder,
+				new IRIDictionary());
+		parse(sink, null);
+		Assert.assertEquals(1, recorder.triples.size());
+		Assert.assertEquals(
+				"http://example.org/s http://example.org/p http://example.org/o",
+				recorder.triples.get(0));
+	}
+
+	@Test
+	public void foreignDictionaryIsRejected() throws Exception {
+		IRIDictionary parserDictionary = new IRIDictionary();
+		// Shift ids so that a foreign id would name the wrong IRI
+		parserDictionary.getId("http://example.org/unrelated");
+		RecordingSink recorder = new RecordingSink();
+		EncodingTripleSink sink = new EncodingTripleSink(recorder,
+				new IRIDictionary());
+		try {
+			parse(sink, parserDictionary);
+			Assert.fail("Expected IllegalStateException");
+		} catch (IllegalStateException exception) {
+			// Expected
+		}
+		Assert.assertEquals(0, recorder.triples.size());
+	}
+}
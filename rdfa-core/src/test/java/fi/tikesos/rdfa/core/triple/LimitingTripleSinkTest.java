@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.triple;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import fi.tikesos.rdfa.core.datatype.BaseURI;
+import fi.tikesos.rdfa.core.datatype.Component;
+import fi.tikesos.rdfa.core.exception.StopParsingException;
+import fi.tikesos.rdfa.core.parser.RDFaParser;
+import fi.tikesos.rdfa.core.parser.TestParsers;
+
+/**
+ * @author ssakorho
+ * 
+ */
+public class LimitingTripleSinkTest {
+	private static final String BODY = "<div about=\"http://e/s\">"
+			+ "<span property=\"http://e/p\">1</span>"
+			+ "<span property=\"http://e/p\">2</span>"
+			+ "<span property=\"http://e/p\">3</span>"
+			+ "<span property=\"http://e/p\">4</span>"
+			+ "<span property=\"http://e/p\">5</span></div>";
+
+	/**
+	 * Relative triples held back until the base is final
+	 */
+	private static final String HEAD = "<meta about=\"a\" property=\"http://e/h\" content=\"1\" />"
+			+ "<meta about=\"b\" property=\"http://e/h\" content=\"2\" />"
+			+ "<meta about=\"c\" property=\"http://e/h\" content=\"3\" />"
+			+ "<base href=\"http://example.net/\" />";
+
+	private static void assertStopped(String xml, boolean sax, int limit,
+			String... expected) throws Exception {
+		CollectingTripleSink collector = new CollectingTripleSink();
+		LimitingTripleSink sink = new LimitingTripleSink(collector, limit);
+		int status = sax == true ? TestParsers.parseSAX(xml, sink, null)
+				: TestParsers.parseDOM(xml, sink, null);
+		Assert.assertEquals(RDFaParser.PARSING_STOPPED, status);
+		Assert.assertEquals(limit, collector.getTriples().size());
+		for (int i = 0; i < expected.length; i++) {
+			Assert.assertEquals(expected[i], collector.getTriples().get(i));
+		}
+		Assert.assertEquals(1, collector.getDocumentsStarted());
+		Assert.assertEquals(1, collector.getDocumentsEnded());
+		Assert.assertTrue(sink.isLimitReached());
+	}
+
+	@Test
+	public void stopsSAX() throws Exception {
+		assertStopped(TestParsers.document("", BODY), true, 3,
+				"<http://e/s> <http://e/p> \"1\"",
+				"<http://e/s> <http://e/p> \"2\"",
+				"<http://e/s> <http://e/p> \"3\"");
+	}
+
+	@Test
+	public void stopsDOM() throws Exception {
+		assertStopped(TestParsers.document("", BODY), false, 3,
+				"<http://e/s> <http://e/p> \"1\"",
+				"<http://e/s> <http://e/p> \"2\"",
+				"<http://e/s> <http://e/p> \"3\"");
+	}
+
+	@Test
+	public void stopsWhileFlushingHead() throws Exception {
+		String xml = TestParsers.document(HEAD, BODY);
+		for (boolean sax : new boolean[] { true, false }) {
+			assertStopped(xml, sax, 2,
+					"<http://example.net/a> <http://e/h> \"1\"",
+					"<http://example.net/b> <http://e/h> \"2\"");
+		}
+	}
+
+	@Test
+	public void cacheIsEmptyAfterStop() throws Exception {
+		CollectingTripleSink collector = new CollectingTripleSink();
+		RelativeTripleCachingSink sink = new RelativeTripleCachingSink(
+				new LimitingTripleSink(collector, 1));
+		BaseURI baseURI = new BaseURI("http://example.org/");
+		sink.startDocument();
+		sink.startRelativeTripleCaching();
+		for (String reference : new String[] { "a", "b" }) {
+			sink.generateTriple(new Component(baseURI, reference),
+					new Component("http://e/p"), new Component("http://e/o"));
+		}
+		try {
+			sink.stopRelativeTripleCaching();
+			Assert.fail("Expected StopParsingException");
+		} catch (StopParsingException exception) {
+			// Limit reached
+		}
+		sink.endDocument();
+		// Next document must not see the triple left over
+		sink.startDocument();
+		sink.startRelativeTripleCaching();
+		sink.stopRelativeTripleCaching();
+		sink.endDocument();
+		Assert.assertEquals(1, collector.getTriples().size());
+		Assert.assertEquals(2, collector.getDocumentsEnded());
+	}
+}
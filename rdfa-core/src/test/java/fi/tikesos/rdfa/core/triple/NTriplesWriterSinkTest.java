@@ -0,0 +1,172 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.triple;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.openjena.atlas.lib.Sink;
+import org.openjena.riot.Lang;
+import org.openjena.riot.RiotReader;
+
+import com.hp.hpl.jena.graph.Triple;
+
+import fi.tikesos.rdfa.core.exception.ErrorHandler;
+
+/**
+ * @author ssakorho
+ * 
+ */
+public class NTriplesWriterSinkTest {
+	private static final String[] IRIS = { "http://example.org/plain",
+			"http://example.org/quote\"d", "http://example.org/back\\slash",
+			"http://example.org/new\nline", "http://example.org/car\rriage",
+			"http://example.org/t\tab", "http://example.org/sp ace",
+			"http://example.org/<angle>", "http://example.org/{curly}|^`",
+			"http://example.org/\u00e4\u4e2d" };
+	private static final String LITERAL = "\"quoted\" back\\slash\nnew\rline\ttab\u0001\u00e4";
+
+	private static List<Triple> roundTrip(String ntriples) throws Exception {
+		final List<Triple> triples = new ArrayList<Triple>();
+		RiotReader.parseTriples(new ByteArrayInputStream(ntriples
+				.getBytes("UTF-8")), Lang.NTRIPLES, null, new Sink<Triple>() {
+			public void send(Triple triple) {
+				triples.add(triple);
+			}
+
+			public void flush() {
+			}
+
+			public void close() {
+			}
+		});
+		return triples;
+	}
+
+	@Test
+	public void escapedIRIsRoundTrip() throws Exception {
+		StringWriter writer = new StringWriter();
+		NTriplesWriterSink sink = new NTriplesWriterSink(writer);
+		for (String iri : IRIS) {
+			sink.generateTriple(iri, iri, iri);
+		}
+		sink.flush();
+		List<Triple> triples = roundTrip(writer.toString());
+		Assert.assertEquals(IRIS.length, triples.size());
+		for (int i = 0; i < IRIS.length; i++) {
+			Triple triple = triples.get(i);
+			Assert.assertEquals(IRIS[i], triple.getSubject().getURI());
+			Assert.assertEquals(IRIS[i], triple.getPredicate().getURI());
+			Assert.assertEquals(IRIS[i], triple.getObject().getURI());
+		}
+	}
+
+	@Test
+	public void escapedLiteralsRoundTrip() throws Exception {
+		StringWriter writer = new StringWriter();
+		NTriplesWriterSink sink = new NTriplesWriterSink(writer);
+		sink.generateTripleLiteral("_:b0", IRIS[1], LITERAL, "fi", null);
+		sink.generateTripleLiteral(IRIS[0], IRIS[2], LITERAL, null, IRIS[3]);
+		sink.flush();
+		List<Triple> triples = roundTrip(writer.toString());
+		Assert.assertEquals(2, triples.size());
+		Assert.assertTrue(triples.get(0).getSubject().isBlank());
+		Assert.assertEquals(LITERAL, triples.get(0).getObject()
+				.getLiteralLexicalForm());
+		Assert.assertEquals("fi", triples.get(0).getObject()
+				.getLiteralLanguage());
+		Assert.assertEquals(LITERAL, triples.get(1).getObject()
+				.getLiteralLexicalForm());
+		Assert.assertEquals(IRIS[3], triples.get(1).getObject()
+				.getLiteralDatatypeURI());
+	}
+
+	@Test
+	public void invalidLanguageTagsAreDropped() throws Exception {
+		String[] valid = { "fi", "en-US", "zh-Hant-TW", "x-1" };
+		String[] invalid = { "en US", "en\"x", "-en", "en-", "en--US", "1en",
+				"en_US", "\u00e4" };
+		final List<Exception> warnings = new ArrayList<Exception>();
+		StringWriter writer = new StringWriter();
+		NTriplesWriterSink sink = new NTriplesWriterSink(writer);
+		sink.setErrorHandler(new ErrorHandler() {
+			public void warning(Exception exception) {
+				warnings.add(exception);
+			}
+
+			public void fatalError(Exception exception) {
+				Assert.fail(exception.getMessage());
+			}
+		});
+		for (String language : valid) {
+			sink.generateTripleLiteral(IRIS[0], IRIS[0], "v", language, null);
+		}
+		for (String language : invalid) {
+			sink.generateTripleLiteral(IRIS[0], IRIS[0], "i", language, null);
+		}
+		sink.flush();
+		Assert.assertEquals(invalid.length, warnings.size());
+		List<Triple> triples = roundTrip(writer.toString());
+		Assert.assertEquals(valid.length + invalid.length, triples.size());
+		for (int i = 0; i < valid.length; i++) {
+			Assert.assertEquals(valid[i], triples.get(i).getObject()
+					.getLiteralLanguage());
+		}
+		for (int i = valid.length; i < triples.size(); i++) {
+			Assert.assertEquals("", triples.get(i).getObject()
+					.getLiteralLanguage());
+		}
+	}
+
+	@Test
+	public void blankNodeLabels() throws Exception {
+		String[] valid = { "_:BNsk12", "_:b0", "_:0", "_:a-b", "_:a_b",
+				"_:\u00e4" };
+		String[] invalid = { "_:", "_:a b", "_:a.", "_:-a", "_:.a", "_:a>b",
+				"_:a:b" };
+		StringWriter writer = new StringWriter();
+		NTriplesWriterSink sink = new NTriplesWriterSink(writer);
+		for (String label : valid) {
+			sink.generateTriple(label, IRIS[0], label);
+		}
+		for (String label : invalid) {
+			try {
+				sink.generateTriple(IRIS[0], IRIS[0], label);
+				Assert.fail("Accepted " + label);
+			} catch (IllegalArgumentException exception) {
+				// Expected
+			}
+		}
+		sink.flush();
+		List<Triple> triples = roundTrip(writer.toString());
+		Assert.assertEquals(valid.length, triples.size());
+		for (Triple triple : triples) {
+			Assert.assertTrue(triple.getSubject().isBlank());
+			Assert.assertEquals(triple.getSubject(), triple.getObject());
+		}
+		// Inner dots are valid N-Triples, but not for RIOT in Jena 2.6
+		writer.getBuffer().setLength(0);
+		sink.generateTriple("_:a.b.c", IRIS[0], IRIS[0]);
+		sink.flush();
+		Assert.assertEquals("_:a.b.c <" + IRIS[0] + "> <" + IRIS[0] + "> .\n",
+				writer.toString());
+	}
+}
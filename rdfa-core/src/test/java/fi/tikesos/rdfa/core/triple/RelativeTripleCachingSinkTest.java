@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.triple;
+
+import java.io.StringReader;
+import java.util.Arrays;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.xml.sax.InputSource;
+
+import fi.tikesos.rdfa.core.datatype.BaseURI;
+import fi.tikesos.rdfa.core.datatype.Component;
+import fi.tikesos.rdfa.core.datatype.Literal;
+import fi.tikesos.rdfa.core.exception.NullErrorHandler;
+import fi.tikesos.rdfa.core.parser.RDFaParser;
+import fi.tikesos.rdfa.core.parser.dom.DOMRDFaParser;
+
+/**
+ * @author ssakorho
+ * 
+ */
+public class RelativeTripleCachingSinkTest {
+	private static final String P = "http://example.org/p";
+
+	@Test
+	public void absoluteTriplesPassThrough() throws Exception {
+		CollectingTripleSink collector = new CollectingTripleSink();
+		RelativeTripleCachingSink sink = new RelativeTripleCachingSink(
+				collector);
+		BaseURI base = new BaseURI("http://example.org/doc");
+		sink.startRelativeTripleCaching();
+		sink.generateTriple(new Component("http://example.org/a"),
+				new Component(P), new Component("http://example.org/b"));
+		sink.generateTripleLiteral(new Component("http://example.org/a"),
+				new Component(P), new Literal("v", null), null, null);
+		sink.generateTriple(new Component("http://example.org/a"),
+				new Component(P), new Component(base, "b"));
+		sink.generateTripleLiteral(new Component(base, "a"),
+				new Component(P), new Literal("w", null), null, null);
+		// Only the absolute triples are passed on while caching
+		Assert.assertEquals(Arrays.asList(
+				"<http://example.org/a> <" + P + "> <http://example.org/b>",
+				"<http://example.org/a> <" + P + "> \"v\""),
+				collector.getTriples());
+		base.setURI("http://example.net/dir/");
+		sink.stopRelativeTripleCaching();
+		Assert.assertEquals(Arrays.asList(
+				"<http://example.org/a> <" + P + "> <http://example.org/b>",
+				"<http://example.org/a> <" + P + "> \"v\"",
+				"<http://example.org/a> <" + P + "> <http://example.net/dir/b>",
+				"<http://example.net/dir/a> <" + P + "> \"w\""),
+				collector.getTriples());
+	}
+
+	@Test
+	public void relativeTriplesResolveAgainstBase() throws Exception {
+		String document = "<html xmlns=\"http://www.w3.org/1999/xhtml\""
+				+ " xmlns:r=\"rel/\"><head>"
+				+ "<meta about=\"a\" property=\"" + P + "\" content=\"v\"/>"
+				+ "<meta about=\"http://example.org/b\" property=\"" + P
+				+ "\" datatype=\"r:type\" content=\"1\"/>"
+				+ "<base href=\"http://example.net/dir/\"/>"
+				+ "<title>Base</title></head><body/></html>";
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		CollectingTripleSink collector = new CollectingTripleSink();
+		DOMRDFaParser.parse(factory.newDocumentBuilder().parse(
+				new InputSource(new StringReader(document))),
+				"http://example.org/doc", collector, null,
+				new NullErrorHandler(), RDFaParser.XHTML_RDFA);
+		Assert.assertTrue(collector.getTriples().contains(
+				"<http://example.net/dir/a> <" + P + "> \"v\""));
+		Assert.assertTrue(collector.getTriples().contains(
+				"<http://example.org/b> <" + P
+						+ "> \"1\"^^<http://example.net/dir/rel/type>"));
+	}
+}
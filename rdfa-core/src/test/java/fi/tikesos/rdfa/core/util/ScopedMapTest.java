@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2011 ssakorho <sami.s.korhonen@uef.fi>
+ *
+ * Licensed under the GNU Lesser General Public Licence, Version 3
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *         http://www.gnu.org/copyleft/lesser.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fi.tikesos.rdfa.core.util;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author ssakorho
+ * 
+ */
+public class ScopedMapTest {
+
+	private static ScopedMap deepScope(int depth) {
+		ScopedMap scope = new ScopedMap(true);
+		scope.put("root", "r");
+		for (int i = 0; i < depth; i++) {
+			scope = scope.createChild();
+			scope.put("k" + i, "v" + i);
+			scope.put("Shared", "s" + i);
+		}
+		return scope;
+	}
+
+	@Test
+	public void lookupThroughCollapsedChain() {
+		ScopedMap scope = deepScope(30);
+		Assert.assertEquals("r", scope.get("root"));
+		for (int i = 0; i < 30; i++) {
+			Assert.assertEquals("v" + i, scope.get("k" + i));
+		}
+		Assert.assertEquals("s29", scope.get("Shared"));
+		Assert.assertEquals("s29", scope.getIgnoreCase("SHARED"));
+		Assert.assertEquals(32, scope.toMap().size());
+	}
+
+	@Test
+	public void siblingsDoNotSeeEachOther() {
+		ScopedMap parent = deepScope(20);
+		ScopedMap first = parent.createChild();
+		ScopedMap second = parent.createChild();
+		first.put("k3", "first");
+		second.put("only", "second");
+		Assert.assertEquals("first", first.get("k3"));
+		Assert.assertEquals("v3", second.get("k3"));
+		Assert.assertEquals("v3", parent.get("k3"));
+		Assert.assertNull(first.get("only"));
+		Assert.assertEquals("second", second.get("only"));
+	}
+
+	@Test
+	public void putAfterCollapseIsVisible() {
+		ScopedMap parent = deepScope(20);
+		Assert.assertNull(parent.createChild().get("late"));
+		parent.put("late", "value");
+		Assert.assertEquals("value", parent.createChild().get("late"));
+	}
+}